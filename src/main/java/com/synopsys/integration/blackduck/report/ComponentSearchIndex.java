@@ -0,0 +1,126 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.gson.stream.JsonWriter;
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+
+/**
+ * Maps every trigram of the component names, versions and licenses to the positions of the components that contain it. The first one and two
+ * code points of every word are indexed as well, prefixed with a space, so queries shorter than a trigram match the start of a word.
+ * <p>
+ * Each posting list is the gaps between ascending positions, written as base 32 digits: {@link #CONTINUATION_DIGITS} for all but the last digit of a gap
+ * and {@link #FINAL_DIGITS} for the last one, so most gaps take a single character.
+ */
+public class ComponentSearchIndex {
+    public static final int GRAM_LENGTH = 3;
+
+    public static final String FINAL_DIGITS = "0123456789abcdefghijklmnopqrstuv";
+
+    public static final String CONTINUATION_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZwxyz_.";
+
+    private final Map<String, PostingList> postingLists = new HashMap<>();
+
+    /**
+     * Positions must be added in ascending order.
+     */
+    public void add(final int position, final BomComponent component) {
+        addField(position, component.getComponentName());
+        addField(position, component.getComponentVersion());
+        addField(position, component.getLicense());
+    }
+
+    public int getGramCount() {
+        return postingLists.size();
+    }
+
+    public void write(final JsonWriter jsonWriter) throws IOException {
+        jsonWriter.beginObject();
+        jsonWriter.name("gramLength").value(GRAM_LENGTH);
+        jsonWriter.name("postings");
+        jsonWriter.beginObject();
+        for (final Map.Entry<String, PostingList> postingList : postingLists.entrySet()) {
+            jsonWriter.name(postingList.getKey()).value(postingList.getValue().encodedGaps.toString());
+        }
+        jsonWriter.endObject();
+        jsonWriter.endObject();
+    }
+
+    private void addField(final int position, final String value) {
+        if (StringUtils.isBlank(value)) {
+            return;
+        }
+        // grams are made of code points so none splits a surrogate pair, the report script splits the query the same way
+        final int[] codePoints = value.toLowerCase(Locale.ROOT).codePoints().toArray();
+        for (int i = 0; i + GRAM_LENGTH <= codePoints.length; i++) {
+            addGram(position, new String(codePoints, i, GRAM_LENGTH));
+        }
+        for (int i = 0; i < codePoints.length; i++) {
+            if (Character.isLetterOrDigit(codePoints[i]) && (i == 0 || !Character.isLetterOrDigit(codePoints[i - 1]))) {
+                addGram(position, " " + new String(codePoints, i, 1));
+                if (i + 1 < codePoints.length) {
+                    addGram(position, " " + new String(codePoints, i, 2));
+                }
+            }
+        }
+    }
+
+    private void addGram(final int position, final String gram) {
+        PostingList postingList = postingLists.get(gram);
+        if (postingList == null) {
+            postingList = new PostingList();
+            postingLists.put(gram, postingList);
+        }
+        postingList.add(position);
+    }
+
+    private static class PostingList {
+        private final StringBuilder encodedGaps = new StringBuilder(4);
+        private int lastPosition = -1;
+
+        public void add(final int position) {
+            if (position == lastPosition) {
+                return;
+            }
+            final int gap = position - lastPosition;
+            lastPosition = position;
+            int shift = 0;
+            while ((gap >>> shift) >= 32) {
+                shift += 5;
+            }
+            for (; shift > 0; shift -= 5) {
+                encodedGaps.append(CONTINUATION_DIGITS.charAt((gap >>> shift) & 31));
+            }
+            encodedGaps.append(FINAL_DIGITS.charAt(gap & 31));
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.gson.Gson;
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.blackduck.report.api.ComponentRiskScore;
+
+/**
+ * Orders the components of a report before they are written. Up to the in memory limit the components are sorted in memory, above it sorted runs of
+ * that size are written to temporary files and merged while the components are read back. Components that compare as equal keep their original order,
+ * so both ways give exactly the same order.
+ */
+public class ComponentSorter {
+    public static final int DEFAULT_IN_MEMORY_LIMIT = 50000;
+
+    /**
+     * The riskiest components first, by {@link ComponentRiskScore#DEFAULT}, then by component name and version.
+     */
+    public static final Comparator<BomComponent> RISK_THEN_NAME = Comparator.comparingLong((final BomComponent component) -> ComponentRiskScore.DEFAULT.score(component)).reversed()
+            .thenComparing(BomComponent::getComponentName, ComponentSorter::compareText)
+            .thenComparing(BomComponent::getComponentVersion, ComponentSorter::compareText);
+
+    private final Comparator<BomComponent> order;
+
+    private final int inMemoryLimit;
+
+    private final File temporaryDirectory;
+
+    private final Gson gson = new Gson();
+
+    public ComponentSorter() {
+        this(RISK_THEN_NAME, DEFAULT_IN_MEMORY_LIMIT, null);
+    }
+
+    /**
+     * @param inMemoryLimit
+     *            the most components sorted in memory, and the size of each sorted run written to disk
+     * @param temporaryDirectory
+     *            where the sorted runs are written, or null for the default temporary directory
+     */
+    public ComponentSorter(final Comparator<BomComponent> order, final int inMemoryLimit, final File temporaryDirectory) {
+        if (inMemoryLimit < 1) {
+            throw new IllegalArgumentException("The in memory limit must be at least 1, but was " + inMemoryLimit);
+        }
+        this.order = order;
+        this.inMemoryLimit = inMemoryLimit;
+        this.temporaryDirectory = temporaryDirectory;
+    }
+
+    /**
+     * Null components are left out. The result has to be closed to delete any sorted runs.
+     */
+    public SortedComponents sort(final Iterable<? extends BomComponent> components) throws IOException {
+        final Comparator<SortedComponents.IndexedComponent> indexedOrder = SortedComponents.createIndexedOrder(order);
+        final List<File> runFiles = new ArrayList<>();
+        try {
+            List<SortedComponents.IndexedComponent> run = new ArrayList<>();
+            // the index is the position in the given components, nulls included, so indexes into the original list stay meaningful
+            long index = -1;
+            for (final BomComponent component : components) {
+                index++;
+                if (component == null) {
+                    continue;
+                }
+                if (run.size() == inMemoryLimit) {
+                    runFiles.add(writeRun(run, indexedOrder));
+                    run = new ArrayList<>();
+                }
+                run.add(new SortedComponents.IndexedComponent(index, component));
+            }
+            run.sort(indexedOrder);
+            if (runFiles.isEmpty()) {
+                return SortedComponents.inMemory(run);
+            }
+            runFiles.add(writeRun(run, indexedOrder));
+            return SortedComponents.merged(runFiles, indexedOrder, gson);
+        } catch (final IOException | RuntimeException e) {
+            for (final File runFile : runFiles) {
+                runFile.delete();
+            }
+            throw e;
+        }
+    }
+
+    private File writeRun(final List<SortedComponents.IndexedComponent> run, final Comparator<SortedComponents.IndexedComponent> indexedOrder) throws IOException {
+        run.sort(indexedOrder);
+        final File runFile = File.createTempFile("riskreport-components", ".run", temporaryDirectory);
+        try (Writer runWriter = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(runFile.toPath()), StandardCharsets.UTF_8))) {
+            // one component per line, gson escapes line breaks inside strings
+            for (final SortedComponents.IndexedComponent indexedComponent : run) {
+                runWriter.write(Long.toString(indexedComponent.getIndex()));
+                runWriter.write(' ');
+                gson.toJson(indexedComponent.getComponent(), BomComponent.class, runWriter);
+                runWriter.write('\n');
+            }
+        } catch (final IOException | RuntimeException e) {
+            runFile.delete();
+            throw e;
+        }
+        return runFile;
+    }
+
+    private static int compareText(final String first, final String second) {
+        final int comparison = StringUtils.compareIgnoreCase(first, second, false);
+        return comparison != 0 ? comparison : StringUtils.compare(first, second, false);
+    }
+
+}
@@ -0,0 +1,48 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.io.FileUtils;
+
+public class DirectoryReportSink implements RiskReportSink {
+    private final File outputDirectory;
+
+    public DirectoryReportSink(final File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    @Override
+    public OutputStream openFile(final String relativePath) throws IOException {
+        return FileUtils.openOutputStream(new File(outputDirectory, relativePath));
+    }
+
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+}
@@ -0,0 +1,333 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.text.StringEscapeUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.blackduck.report.api.LicenseCount;
+import com.synopsys.integration.blackduck.report.api.PolicyRule;
+import com.synopsys.integration.blackduck.report.api.PolicyRuleViolations;
+import com.synopsys.integration.blackduck.report.api.PortfolioComponent;
+import com.synopsys.integration.blackduck.report.api.PortfolioReport;
+import com.synopsys.integration.blackduck.report.api.ReportData;
+import com.synopsys.integration.blackduck.report.api.RiskLevel;
+import com.synopsys.integration.blackduck.report.api.RiskSummary;
+import com.synopsys.integration.blackduck.report.exception.RiskReportException;
+
+/**
+ * Writes the components as rows for loading into other tools, one file per {@link Format}, and the summary counts as a small json file next to them.
+ * The rows are written as the components are iterated, every format in the same pass, so memory use does not grow with the number of components. The
+ * sink takes one file at a time, so the first format is written to it directly and the others to temporary files that are copied to it afterwards.
+ * <p>
+ * The export makes its own pass over the components rather than riding along with {@link RiskReportWriter} or the pdf writer. Each of them has its
+ * own {@link ComponentSorter}, its own executor and its own cancellation, and the pdf writer may only draw the riskiest components, so their passes
+ * do not visit the same components in the same order. Classifying a component is done through {@link RiskLevel} in all of them.
+ */
+public class RiskReportExporter {
+    public static final String SUMMARY_FILE_NAME = "riskreport-summary.json";
+
+    public static final String COMPONENTS_FILE_NAME = "riskreport-components";
+
+    private static final String[] COLUMNS = { "projectName", "projectVersion", "componentName", "componentVersion", "license", "policyStatus", "policyRulesViolated",
+            "securityRisk", "licenseRisk", "operationalRisk", "securityRiskHighCount", "securityRiskMediumCount", "securityRiskLowCount", "licenseRiskHighCount",
+            "licenseRiskMediumCount", "licenseRiskLowCount", "operationalRiskHighCount", "operationalRiskMediumCount", "operationalRiskLowCount", "componentURL",
+            "componentVersionURL" };
+
+    private static final int POLICY_RULES_COLUMN = 6;
+
+    private final Gson gson = new Gson();
+
+    private Set<Format> formats = EnumSet.allOf(Format.class);
+
+    private ComponentSorter componentSorter;
+
+    public enum Format {
+        NDJSON("ndjson"),
+        CSV("csv");
+
+        private final String fileExtension;
+
+        Format(final String fileExtension) {
+            this.fileExtension = fileExtension;
+        }
+
+        public String getFileName() {
+            return COMPONENTS_FILE_NAME + "." + fileExtension;
+        }
+    }
+
+    public void setFormats(final Format firstFormat, final Format... otherFormats) {
+        this.formats = EnumSet.of(firstFormat, otherFormats);
+    }
+
+    /**
+     * @param componentSorter
+     *            orders the exported components, or null to keep the order of the report
+     */
+    public void setComponentSorter(final ComponentSorter componentSorter) {
+        this.componentSorter = componentSorter;
+    }
+
+    public void export(final RiskReportSink sink, final ReportData reportData) throws RiskReportException {
+        export(sink, reportData, reportData.getComponents(), reportData);
+    }
+
+    public void exportPortfolio(final RiskReportSink sink, final PortfolioReport portfolioReport) throws RiskReportException {
+        export(sink, portfolioReport, portfolioReport.getComponents(), null);
+    }
+
+    public void exportFiles(final File outputDirectory, final ReportData reportData) throws RiskReportException {
+        export(new DirectoryReportSink(outputDirectory), reportData);
+    }
+
+    private void export(final RiskReportSink sink, final RiskSummary summary, final List<? extends BomComponent> components, final ReportData reportData) throws RiskReportException {
+        final Map<Format, Writer> writers = new EnumMap<>(Format.class);
+        final Map<Format, File> bufferedFiles = new EnumMap<>(Format.class);
+        try {
+            for (final Format format : formats) {
+                if (writers.isEmpty()) {
+                    writers.put(format, createWriter(sink.openFile(format.getFileName())));
+                } else {
+                    final File bufferedFile = File.createTempFile(COMPONENTS_FILE_NAME, "." + format.fileExtension);
+                    bufferedFiles.put(format, bufferedFile);
+                    writers.put(format, createWriter(new FileOutputStream(bufferedFile)));
+                }
+            }
+            final JsonWriter ndjsonWriter = writers.containsKey(Format.NDJSON) ? createNdjsonWriter(writers.get(Format.NDJSON)) : null;
+            if (writers.containsKey(Format.CSV)) {
+                writeCsvRow(writers.get(Format.CSV), COLUMNS);
+            }
+            final int exportedComponentCount;
+            if (components == null) {
+                exportedComponentCount = 0;
+            } else if (componentSorter != null) {
+                try (SortedComponents sortedComponents = componentSorter.sort(components)) {
+                    exportedComponentCount = writeComponents(writers, ndjsonWriter, sortedComponents, reportData);
+                }
+            } else {
+                exportedComponentCount = writeComponents(writers, ndjsonWriter, components, reportData);
+            }
+            for (final Writer writer : writers.values()) {
+                writer.close();
+            }
+            writers.clear();
+            for (final Map.Entry<Format, File> bufferedFile : bufferedFiles.entrySet()) {
+                try (OutputStream fileStream = sink.openFile(bufferedFile.getKey().getFileName())) {
+                    Files.copy(bufferedFile.getValue().toPath(), fileStream);
+                }
+            }
+            try (Writer summaryWriter = createWriter(sink.openFile(SUMMARY_FILE_NAME))) {
+                writeSummary(summaryWriter, summary, reportData, exportedComponentCount);
+            }
+        } catch (final IOException e) {
+            throw new RiskReportException("Couldn't create the report: " + e.getMessage(), e);
+        } finally {
+            for (final Writer writer : writers.values()) {
+                try {
+                    writer.close();
+                } catch (final IOException e) {
+                    // the writers are only still open when the export failed, which is the error that gets reported
+                }
+            }
+            for (final File bufferedFile : bufferedFiles.values()) {
+                FileUtils.deleteQuietly(bufferedFile);
+            }
+        }
+    }
+
+    private Writer createWriter(final OutputStream outputStream) {
+        return new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    private int writeComponents(final Map<Format, Writer> writers, final JsonWriter ndjsonWriter, final Iterable<? extends BomComponent> components, final ReportData reportData)
+            throws IOException {
+        int exportedComponentCount = 0;
+        for (final BomComponent component : components) {
+            if (component == null) {
+                continue;
+            }
+            final Object[] row = createRow(component, reportData);
+            if (ndjsonWriter != null) {
+                writeNdjsonRow(writers.get(Format.NDJSON), ndjsonWriter, row);
+            }
+            if (writers.containsKey(Format.CSV)) {
+                writeCsvRow(writers.get(Format.CSV), row);
+            }
+            exportedComponentCount++;
+        }
+        return exportedComponentCount;
+    }
+
+    private Object[] createRow(final BomComponent component, final ReportData reportData) {
+        final List<String> policyRuleNames = new ArrayList<>();
+        if (component.getPolicyRulesViolated() != null) {
+            for (final PolicyRule policyRule : component.getPolicyRulesViolated()) {
+                if (policyRule != null) {
+                    policyRuleNames.add(policyRule.getName());
+                }
+            }
+        }
+        final String projectName;
+        final String projectVersion;
+        if (component instanceof PortfolioComponent) {
+            projectName = ((PortfolioComponent) component).getProjectName();
+            projectVersion = ((PortfolioComponent) component).getProjectVersion();
+        } else {
+            projectName = reportData == null ? null : reportData.getProjectName();
+            projectVersion = reportData == null ? null : reportData.getProjectVersion();
+        }
+        return new Object[] { projectName, projectVersion, component.getComponentName(), component.getComponentVersion(), component.getLicense(), component.getPolicyStatus(),
+                policyRuleNames, RiskLevel.ofSecurityRisk(component), RiskLevel.ofLicenseRisk(component), RiskLevel.ofOperationalRisk(component),
+                component.getSecurityRiskHighCount(), component.getSecurityRiskMediumCount(), component.getSecurityRiskLowCount(), component.getLicenseRiskHighCount(),
+                component.getLicenseRiskMediumCount(), component.getLicenseRiskLowCount(), component.getOperationalRiskHighCount(),
+                component.getOperationalRiskMediumCount(), component.getOperationalRiskLowCount(), component.getComponentURL(), component.getComponentVersionURL() };
+    }
+
+    private JsonWriter createNdjsonWriter(final Writer writer) {
+        final JsonWriter jsonWriter = new JsonWriter(writer);
+        // each row is its own document, lenient writers accept more than one
+        jsonWriter.setLenient(true);
+        return jsonWriter;
+    }
+
+    private void writeNdjsonRow(final Writer writer, final JsonWriter jsonWriter, final Object[] row) throws IOException {
+        jsonWriter.beginObject();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (row[i] == null) {
+                continue;
+            }
+            jsonWriter.name(COLUMNS[i]);
+            if (i == POLICY_RULES_COLUMN) {
+                jsonWriter.beginArray();
+                for (final Object policyRuleName : (List<?>) row[i]) {
+                    jsonWriter.value((String) policyRuleName);
+                }
+                jsonWriter.endArray();
+            } else if (row[i] instanceof Integer) {
+                jsonWriter.value((Integer) row[i]);
+            } else {
+                jsonWriter.value(row[i].toString());
+            }
+        }
+        jsonWriter.endObject();
+        writer.write('\n');
+    }
+
+    private void writeCsvRow(final Writer writer, final Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (row[i] instanceof List) {
+                writer.write(StringEscapeUtils.escapeCsv(String.join("; ", toStrings((List<?>) row[i]))));
+            } else if (row[i] != null) {
+                writer.write(StringEscapeUtils.escapeCsv(row[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private List<String> toStrings(final List<?> values) {
+        final List<String> strings = new ArrayList<>();
+        for (final Object value : values) {
+            strings.add(String.valueOf(value));
+        }
+        return strings;
+    }
+
+    private void writeSummary(final Writer writer, final RiskSummary summary, final ReportData reportData, final int exportedComponentCount) throws IOException {
+        final JsonWriter jsonWriter = gson.newJsonWriter(writer);
+        jsonWriter.beginObject();
+        if (reportData != null) {
+            jsonWriter.name("projectName").value(reportData.getProjectName());
+            jsonWriter.name("projectVersion").value(reportData.getProjectVersion());
+            jsonWriter.name("phase").value(reportData.getPhase());
+            jsonWriter.name("distribution").value(reportData.getDistribution());
+        }
+        if (summary instanceof PortfolioReport) {
+            jsonWriter.name("projectCount").value(((PortfolioReport) summary).getProjectCount());
+        }
+        jsonWriter.name("totalComponents").value(summary.getTotalComponents());
+        jsonWriter.name("exportedComponents").value(exportedComponentCount);
+        jsonWriter.name("vulnerabilityRiskHighCount").value(summary.getVulnerabilityRiskHighCount());
+        jsonWriter.name("vulnerabilityRiskMediumCount").value(summary.getVulnerabilityRiskMediumCount());
+        jsonWriter.name("vulnerabilityRiskLowCount").value(summary.getVulnerabilityRiskLowCount());
+        jsonWriter.name("vulnerabilityRiskNoneCount").value(summary.getVulnerabilityRiskNoneCount());
+        jsonWriter.name("licenseRiskHighCount").value(summary.getLicenseRiskHighCount());
+        jsonWriter.name("licenseRiskMediumCount").value(summary.getLicenseRiskMediumCount());
+        jsonWriter.name("licenseRiskLowCount").value(summary.getLicenseRiskLowCount());
+        jsonWriter.name("licenseRiskNoneCount").value(summary.getLicenseRiskNoneCount());
+        jsonWriter.name("operationalRiskHighCount").value(summary.getOperationalRiskHighCount());
+        jsonWriter.name("operationalRiskMediumCount").value(summary.getOperationalRiskMediumCount());
+        jsonWriter.name("operationalRiskLowCount").value(summary.getOperationalRiskLowCount());
+        jsonWriter.name("operationalRiskNoneCount").value(summary.getOperationalRiskNoneCount());
+        if (reportData != null) {
+            jsonWriter.name("licenseCounts");
+            jsonWriter.beginArray();
+            for (final LicenseCount licenseCount : reportData.getLicenseCounts()) {
+                gson.toJson(licenseCount, LicenseCount.class, jsonWriter);
+            }
+            jsonWriter.endArray();
+            // the rows may be sorted, so the violations are counted instead of pointing at rows
+            jsonWriter.name("policyRuleViolations");
+            jsonWriter.beginArray();
+            for (final PolicyRuleViolations violations : reportData.getPolicyRuleViolations()) {
+                jsonWriter.beginObject();
+                jsonWriter.name("policyRule").value(violations.getRule().getName());
+                jsonWriter.name("componentCount").value(violations.getComponentIndexes().length);
+                jsonWriter.endObject();
+            }
+            jsonWriter.endArray();
+        }
+        jsonWriter.name("files");
+        jsonWriter.beginArray();
+        for (final Format format : formats) {
+            jsonWriter.value(format.getFileName());
+        }
+        jsonWriter.endArray();
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+
+import com.synopsys.integration.blackduck.report.exception.RiskReportException;
+
+public class RiskReportFutures {
+    public static final BooleanSupplier NEVER_CANCELLED = () -> false;
+
+    private RiskReportFutures() {
+    }
+
+    /**
+     * Runs the task on the executor. Cancelling the returned future does not interrupt the thread, the task is expected to check the supplied cancellation
+     * flag between units of work and give up with a {@link RiskReportException}.
+     */
+    public static <T> CompletableFuture<T> supplyCancellable(final Executor executor, final CancellableReportTask<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isCancelled()) {
+                    return;
+                }
+                try {
+                    future.complete(task.run(future::isCancelled));
+                } catch (final Throwable e) {
+                    // errors such as running out of memory on a large report complete the future too, so no caller waits forever
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public static void checkCancelled(final BooleanSupplier cancelled) throws RiskReportException {
+        if (cancelled.getAsBoolean()) {
+            throw new RiskReportException("The report was cancelled.");
+        }
+    }
+
+    @FunctionalInterface
+    public interface CancellableReportTask<T> {
+        T run(BooleanSupplier cancelled) throws RiskReportException;
+    }
+
+}
@@ -50,6 +50,13 @@ public class RiskReportResourceCopier extends JarResourceCopier {
 
     @Override
     public List<String> findRelativePathFileList() {
+        return findReportFileList();
+    }
+
+    /**
+     * The files of the html report, relative to {@link #RESOURCE_DIRECTORY}.
+     */
+    public static List<String> findReportFileList() {
         final List<String> relativePathList = new LinkedList<>();
         relativePathList.add("css/HubBomReport.css");
         relativePathList.add("images/Hub_BD_logo.png");
@@ -58,11 +65,12 @@ public class RiskReportResourceCopier extends JarResourceCopier {
         return relativePathList;
     }
 
-    private List<String> findJavascriptFileList() {
+    private static List<String> findJavascriptFileList() {
         final List<String> fileList = new LinkedList<>();
         final String parentDir = "js/";
         fileList.add(parentDir + "HubBomReportFunctions.js");
         fileList.add(parentDir + "HubRiskReport.js");
+        fileList.add(parentDir + "HubRiskReportWorker.js");
         fileList.add(parentDir + "jquery-3.1.1.min.js");
         fileList.add(parentDir + "Sortable.js");
         return fileList;
@@ -23,47 +23,260 @@
  */
 package com.synopsys.integration.blackduck.report;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.net.URISyntaxException;
-import java.util.List;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.blackduck.report.api.LicenseCount;
+import com.synopsys.integration.blackduck.report.api.PolicyRuleViolations;
+import com.synopsys.integration.blackduck.report.api.PortfolioReport;
 import com.synopsys.integration.blackduck.report.api.ReportData;
 import com.synopsys.integration.blackduck.report.exception.RiskReportException;
 
 public class RiskReportWriter {
+    private static final String COMPONENTS_FIELD = "components";
 
+    private static final String POLICY_RULE_VIOLATIONS_FIELD = "policyRuleViolations";
+
+    private static final String LICENSE_COUNTS_FIELD = "licenseCounts";
+
+    private static final String SEARCH_INDEX_FIELD = "searchIndex";
+
+    /**
+     * The data is written into a script block of the html file. An html safe JsonWriter escapes &lt;, &gt;, &amp;, = and ' in every string as it writes
+     * it, along with U+2028 and U+2029, so no value can end the script block and the data needs no second escaping pass.
+     */
     private final Gson gson = new Gson();
 
+    private final Gson summaryGson = new GsonBuilder().addSerializationExclusionStrategy(new ExclusionStrategy() {
+        @Override
+        public boolean shouldSkipField(final FieldAttributes field) {
+            return field.getDeclaringClass() == ReportData.class && (COMPONENTS_FIELD.equals(field.getName()) || POLICY_RULE_VIOLATIONS_FIELD.equals(field.getName())
+                    || LICENSE_COUNTS_FIELD.equals(field.getName()));
+        }
+
+        @Override
+        public boolean shouldSkipClass(final Class<?> clazz) {
+            return false;
+        }
+    }).create();
+
+    private ComponentSorter componentSorter;
+
+    private boolean searchIndexEnabled = false;
+
+    /**
+     * @param componentSorter
+     *            orders the components of the report, or null to keep the order of {@link ReportData#getComponents()}
+     */
+    public void setComponentSorter(final ComponentSorter componentSorter) {
+        this.componentSorter = componentSorter;
+    }
+
+    /**
+     * Adds a {@link ComponentSearchIndex} of the components to the report data, the html report then offers a search box over the component table.
+     */
+    public void setSearchIndexEnabled(final boolean searchIndexEnabled) {
+        this.searchIndexEnabled = searchIndexEnabled;
+    }
+
     public void createHtmlReportFiles(final File outputDirectory, final ReportData reportData) throws RiskReportException {
+        createHtmlReportFiles(outputDirectory, reportData, RiskReportFutures.NEVER_CANCELLED);
+    }
+
+    /**
+     * Writes the report files on the executor and completes with the html file. Cancelling the future stops the report before the next component and
+     * deletes the report files written so far. The writer only reads the report data, so the html and pdf reports for the same {@link ReportData} can be
+     * written at the same time.
+     */
+    public CompletableFuture<File> createHtmlReportFilesAsync(final File outputDirectory, final ReportData reportData, final Executor executor) {
+        return RiskReportFutures.supplyCancellable(executor, cancelled -> createHtmlReportFiles(outputDirectory, reportData, cancelled));
+    }
+
+    /**
+     * Writes the html report files to the sink, the report data is written straight into the html file as it is serialized.
+     */
+    public void createHtmlReport(final RiskReportSink sink, final ReportData reportData) throws RiskReportException {
+        createHtmlReport(sink, reportData, RiskReportFutures.NEVER_CANCELLED);
+    }
+
+    /**
+     * Writes a portfolio dashboard with the same html, script and style files as a single project version report.
+     */
+    public void createPortfolioHtmlReport(final RiskReportSink sink, final PortfolioReport portfolioReport) throws RiskReportException {
+        createHtmlReport(sink, portfolioReport, RiskReportFutures.NEVER_CANCELLED);
+    }
+
+    public File createPortfolioHtmlReportFiles(final File outputDirectory, final PortfolioReport portfolioReport) throws RiskReportException {
+        createPortfolioHtmlReport(new DirectoryReportSink(outputDirectory), portfolioReport);
+        return new File(outputDirectory, RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME);
+    }
+
+    private File createHtmlReportFiles(final File outputDirectory, final ReportData reportData, final BooleanSupplier cancelled) throws RiskReportException {
         try {
-            final RiskReportResourceCopier copier = new RiskReportResourceCopier(outputDirectory.getCanonicalPath());
-            File htmlFile = null;
-            try {
-                final List<File> writtenFiles = copier.copy();
-                for (final File file : writtenFiles) {
-                    if (file.getName().equals(RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME)) {
-                        htmlFile = file;
-                        break;
-                    }
+            createHtmlReport(new DirectoryReportSink(outputDirectory), reportData, cancelled);
+        } catch (final RiskReportException e) {
+            // a cancelled or failed report leaves no partial files behind, like the pdf report
+            deleteReportFiles(outputDirectory);
+            throw e;
+        }
+        return new File(outputDirectory, RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME);
+    }
+
+    private void deleteReportFiles(final File outputDirectory) {
+        for (final String relativePath : RiskReportResourceCopier.findReportFileList()) {
+            final File reportFile = new File(outputDirectory, relativePath);
+            FileUtils.deleteQuietly(reportFile);
+            // only the directories left empty are removed, anything else in the output directory stays
+            for (File directory = reportFile.getParentFile(); directory != null && !directory.equals(outputDirectory); directory = directory.getParentFile()) {
+                final String[] remainingFiles = directory.list();
+                if (remainingFiles == null || remainingFiles.length > 0 || !directory.delete()) {
+                    break;
                 }
-            } catch (final URISyntaxException e) {
-                throw new RiskReportException("Couldn't create the report: " + e.getMessage(), e);
             }
-            if (htmlFile == null) {
-                throw new RiskReportException("Could not find the file : " + RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME
-                        + ", the report files must not have been copied into the report directory.");
+        }
+    }
+
+    private void createHtmlReport(final RiskReportSink sink, final Object reportData, final BooleanSupplier cancelled) throws RiskReportException {
+        try {
+            for (final String relativePath : RiskReportResourceCopier.findReportFileList()) {
+                RiskReportFutures.checkCancelled(cancelled);
+                try (OutputStream fileStream = sink.openFile(relativePath)) {
+                    if (RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME.equals(relativePath)) {
+                        writeHtmlFile(fileStream, reportData, cancelled);
+                    } else {
+                        try (InputStream resourceStream = openResource(relativePath)) {
+                            IOUtils.copy(resourceStream, fileStream);
+                        }
+                    }
+                }
             }
-            String htmlFileString = FileUtils.readFileToString(htmlFile, "UTF-8");
-            final String reportString = gson.toJson(reportData);
-            htmlFileString = htmlFileString.replace(RiskReportResourceCopier.JSON_TOKEN_TO_REPLACE, reportString);
-            FileUtils.writeStringToFile(htmlFile, htmlFileString, "UTF-8");
-        } catch (final IOException e) {
+        } catch (final IOException | JsonIOException | UncheckedIOException e) {
             throw new RiskReportException("Couldn't create the report: " + e.getMessage(), e);
         }
     }
 
+    private void writeHtmlFile(final OutputStream fileStream, final Object reportData, final BooleanSupplier cancelled) throws IOException, RiskReportException {
+        final String htmlTemplate;
+        try (InputStream resourceStream = openResource(RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME)) {
+            htmlTemplate = IOUtils.toString(resourceStream, StandardCharsets.UTF_8);
+        }
+        final int tokenIndex = htmlTemplate.indexOf(RiskReportResourceCopier.JSON_TOKEN_TO_REPLACE);
+        if (tokenIndex < 0) {
+            throw new RiskReportException("Could not find the report data token in the file : " + RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME);
+        }
+        final Writer htmlWriter = new BufferedWriter(new OutputStreamWriter(fileStream, StandardCharsets.UTF_8));
+        htmlWriter.write(htmlTemplate, 0, tokenIndex);
+        if (reportData instanceof ReportData && ((ReportData) reportData).getComponents() != null) {
+            writeStreamedReportData(htmlWriter, (ReportData) reportData, cancelled);
+        } else {
+            gson.toJson(reportData, htmlWriter);
+        }
+        final int afterToken = tokenIndex + RiskReportResourceCopier.JSON_TOKEN_TO_REPLACE.length();
+        htmlWriter.write(htmlTemplate, afterToken, htmlTemplate.length() - afterToken);
+        htmlWriter.flush();
+    }
+
+    private void writeStreamedReportData(final Writer htmlWriter, final ReportData reportData, final BooleanSupplier cancelled) throws IOException, RiskReportException {
+        final JsonWriter jsonWriter = gson.newJsonWriter(htmlWriter);
+        // gson only makes the writer html safe while it serializes an object, the names and values written here directly need it as well
+        jsonWriter.setHtmlSafe(true);
+        jsonWriter.beginObject();
+        for (final Map.Entry<String, JsonElement> summaryField : summaryGson.toJsonTree(reportData).getAsJsonObject().entrySet()) {
+            jsonWriter.name(summaryField.getKey());
+            gson.toJson(summaryField.getValue(), jsonWriter);
+        }
+        jsonWriter.name(LICENSE_COUNTS_FIELD);
+        jsonWriter.beginArray();
+        for (final LicenseCount licenseCount : reportData.getLicenseCounts()) {
+            gson.toJson(licenseCount, LicenseCount.class, jsonWriter);
+        }
+        jsonWriter.endArray();
+        final ComponentSearchIndex searchIndex = searchIndexEnabled ? new ComponentSearchIndex() : null;
+        jsonWriter.name(COMPONENTS_FIELD);
+        jsonWriter.beginArray();
+        int[] sortedPositions = null;
+        if (componentSorter != null) {
+            // the policy rule index points into the components, so it follows them to their sorted positions
+            sortedPositions = new int[reportData.getComponents().size()];
+            int sortedPosition = 0;
+            try (SortedComponents sortedComponents = componentSorter.sort(reportData.getComponents())) {
+                final Iterator<SortedComponents.IndexedComponent> indexedComponents = sortedComponents.indexedIterator();
+                while (indexedComponents.hasNext()) {
+                    RiskReportFutures.checkCancelled(cancelled);
+                    final SortedComponents.IndexedComponent indexedComponent = indexedComponents.next();
+                    if (searchIndex != null) {
+                        searchIndex.add(sortedPosition, indexedComponent.getComponent());
+                    }
+                    sortedPositions[(int) indexedComponent.getIndex()] = sortedPosition++;
+                    gson.toJson(indexedComponent.getComponent(), BomComponent.class, jsonWriter);
+                }
+            }
+        } else {
+            int position = 0;
+            for (final BomComponent component : reportData.getComponents()) {
+                RiskReportFutures.checkCancelled(cancelled);
+                if (component != null && searchIndex != null) {
+                    searchIndex.add(position, component);
+                }
+                position++;
+                gson.toJson(component, BomComponent.class, jsonWriter);
+            }
+        }
+        jsonWriter.endArray();
+        jsonWriter.name(POLICY_RULE_VIOLATIONS_FIELD);
+        jsonWriter.beginArray();
+        for (final PolicyRuleViolations violations : reportData.getPolicyRuleViolations()) {
+            if (sortedPositions == null) {
+                gson.toJson(violations, PolicyRuleViolations.class, jsonWriter);
+                continue;
+            }
+            final int[] componentIndexes = new int[violations.getComponentIndexes().length];
+            for (int i = 0; i < componentIndexes.length; i++) {
+                componentIndexes[i] = sortedPositions[violations.getComponentIndexes()[i]];
+            }
+            Arrays.sort(componentIndexes);
+            gson.toJson(new PolicyRuleViolations(violations.getRule(), componentIndexes), PolicyRuleViolations.class, jsonWriter);
+        }
+        jsonWriter.endArray();
+        if (searchIndex != null) {
+            jsonWriter.name(SEARCH_INDEX_FIELD);
+            searchIndex.write(jsonWriter);
+        }
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    private InputStream openResource(final String relativePath) throws IOException {
+        final String resourceName = "/" + RiskReportResourceCopier.RESOURCE_DIRECTORY + relativePath;
+        final InputStream resourceStream = getClass().getResourceAsStream(resourceName);
+        if (resourceStream == null) {
+            throw new IOException("Could not find the file : " + resourceName);
+        }
+        return resourceStream;
+    }
+
 }
@@ -0,0 +1,209 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import com.google.gson.Gson;
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+
+/**
+ * The components in the order of a {@link ComponentSorter}. Components sorted on disk are merged from the sorted runs every time they are iterated, so
+ * only one component per run is in memory.
+ */
+public class SortedComponents implements Iterable<BomComponent>, Closeable {
+    private final List<IndexedComponent> inMemoryComponents;
+
+    private final List<File> runFiles;
+
+    private final Comparator<IndexedComponent> indexedOrder;
+
+    private final Gson gson;
+
+    private final List<BufferedReader> openReaders = new ArrayList<>();
+
+    private SortedComponents(final List<IndexedComponent> inMemoryComponents, final List<File> runFiles, final Comparator<IndexedComponent> indexedOrder, final Gson gson) {
+        this.inMemoryComponents = inMemoryComponents;
+        this.runFiles = runFiles;
+        this.indexedOrder = indexedOrder;
+        this.gson = gson;
+    }
+
+    static SortedComponents inMemory(final List<IndexedComponent> sortedComponents) {
+        return new SortedComponents(sortedComponents, Collections.emptyList(), null, null);
+    }
+
+    static SortedComponents merged(final List<File> runFiles, final Comparator<IndexedComponent> indexedOrder, final Gson gson) {
+        return new SortedComponents(null, runFiles, indexedOrder, gson);
+    }
+
+    static Comparator<IndexedComponent> createIndexedOrder(final Comparator<BomComponent> order) {
+        return Comparator.comparing(IndexedComponent::getComponent, order).thenComparingLong(IndexedComponent::getIndex);
+    }
+
+    public boolean isSortedInMemory() {
+        return inMemoryComponents != null;
+    }
+
+    /**
+     * @throws UncheckedIOException
+     *             if a sorted run can not be read
+     */
+    @Override
+    public Iterator<BomComponent> iterator() {
+        final Iterator<IndexedComponent> components = indexedIterator();
+        return new Iterator<BomComponent>() {
+            @Override
+            public boolean hasNext() {
+                return components.hasNext();
+            }
+
+            @Override
+            public BomComponent next() {
+                return components.next().getComponent();
+            }
+        };
+    }
+
+    /**
+     * The sorted components with their position in the components that were sorted.
+     */
+    Iterator<IndexedComponent> indexedIterator() {
+        if (isSortedInMemory()) {
+            return inMemoryComponents.iterator();
+        }
+        return new MergingIterator();
+    }
+
+    /**
+     * Deletes the sorted runs.
+     */
+    @Override
+    public void close() throws IOException {
+        for (final BufferedReader reader : openReaders) {
+            reader.close();
+        }
+        openReaders.clear();
+        for (final File runFile : runFiles) {
+            Files.deleteIfExists(runFile.toPath());
+        }
+    }
+
+    private class MergingIterator implements Iterator<IndexedComponent> {
+        private final PriorityQueue<RunCursor> cursors = new PriorityQueue<>(Math.max(1, runFiles.size()), (first, second) -> indexedOrder.compare(first.current, second.current));
+
+        public MergingIterator() {
+            try {
+                for (final File runFile : runFiles) {
+                    final BufferedReader reader = Files.newBufferedReader(runFile.toPath(), StandardCharsets.UTF_8);
+                    openReaders.add(reader);
+                    final RunCursor cursor = new RunCursor(reader);
+                    if (cursor.advance()) {
+                        cursors.add(cursor);
+                    }
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Couldn't read the sorted components: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public IndexedComponent next() {
+            final RunCursor cursor = cursors.poll();
+            if (cursor == null) {
+                throw new NoSuchElementException();
+            }
+            final IndexedComponent component = cursor.current;
+            try {
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Couldn't read the sorted components: " + e.getMessage(), e);
+            }
+            return component;
+        }
+    }
+
+    private class RunCursor {
+        private final BufferedReader reader;
+
+        private IndexedComponent current;
+
+        public RunCursor(final BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        public boolean advance() throws IOException {
+            final String line = reader.readLine();
+            if (line == null) {
+                reader.close();
+                openReaders.remove(reader);
+                current = null;
+                return false;
+            }
+            final int separator = line.indexOf(' ');
+            current = new IndexedComponent(Long.parseLong(line.substring(0, separator)), gson.fromJson(line.substring(separator + 1), BomComponent.class));
+            return true;
+        }
+    }
+
+    static class IndexedComponent {
+        private final long index;
+
+        private final BomComponent component;
+
+        public IndexedComponent(final long index, final BomComponent component) {
+            this.index = index;
+            this.component = component;
+        }
+
+        public long getIndex() {
+            return index;
+        }
+
+        public BomComponent getComponent() {
+            return component;
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes every report file as an entry of a zip stream, so the whole html report can go to a single upload or response. The zip stream is not finished
+ * or closed.
+ */
+public class ZipReportSink implements RiskReportSink {
+    private final ZipOutputStream zipOutputStream;
+
+    public ZipReportSink(final ZipOutputStream zipOutputStream) {
+        this.zipOutputStream = zipOutputStream;
+    }
+
+    @Override
+    public OutputStream openFile(final String relativePath) throws IOException {
+        zipOutputStream.putNextEntry(new ZipEntry(relativePath));
+        return new FilterOutputStream(zipOutputStream) {
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                zipOutputStream.closeEntry();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,51 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+/**
+ * Ranks components by risk, a higher score is riskier.
+ */
+@FunctionalInterface
+public interface ComponentRiskScore {
+    /**
+     * Weighs the security, license and operational risk of a component equally.
+     */
+    ComponentRiskScore DEFAULT = weighted(1, 1, 1);
+
+    long score(BomComponent component);
+
+    /**
+     * Each category scores 100 per high, 10 per medium and 1 per low risk count, multiplied by the weight of the category.
+     */
+    static ComponentRiskScore weighted(final long securityWeight, final long licenseWeight, final long operationalWeight) {
+        return component -> securityWeight * score(component.getSecurityRiskHighCount(), component.getSecurityRiskMediumCount(), component.getSecurityRiskLowCount())
+                + licenseWeight * score(component.getLicenseRiskHighCount(), component.getLicenseRiskMediumCount(), component.getLicenseRiskLowCount())
+                + operationalWeight * score(component.getOperationalRiskHighCount(), component.getOperationalRiskMediumCount(), component.getOperationalRiskLowCount());
+    }
+
+    static long score(final int highCount, final int mediumCount, final int lowCount) {
+        return 100L * highCount + 10L * mediumCount + lowCount;
+    }
+
+}
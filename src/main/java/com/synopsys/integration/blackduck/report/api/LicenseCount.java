@@ -0,0 +1,126 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * How many components use a license, in total and by the license risk of the component. A null license counts the components without one.
+ */
+public class LicenseCount {
+    private static final Comparator<LicenseCount> MOST_USED_FIRST = Comparator.comparingInt(LicenseCount::getComponentCount).reversed()
+            .thenComparing(LicenseCount::getLicense, (first, second) -> StringUtils.compare(first, second, false));
+
+    private String license;
+
+    private int componentCount;
+
+    private int highRiskCount;
+
+    private int mediumRiskCount;
+
+    private int lowRiskCount;
+
+    public static List<LicenseCount> histogram(final List<BomComponent> components) {
+        final Histogram histogram = new Histogram();
+        for (final BomComponent component : components) {
+            if (component != null) {
+                histogram.add(component, 1);
+            }
+        }
+        return histogram.toList();
+    }
+
+    public String getLicense() {
+        return license;
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    public int getHighRiskCount() {
+        return highRiskCount;
+    }
+
+    public int getMediumRiskCount() {
+        return mediumRiskCount;
+    }
+
+    public int getLowRiskCount() {
+        return lowRiskCount;
+    }
+
+    public int getNoRiskCount() {
+        return componentCount - highRiskCount - mediumRiskCount - lowRiskCount;
+    }
+
+    /**
+     * Counts components by license as they go by. The first occurrence of each license is kept as its key, every later component with an equal license
+     * only finds it.
+     */
+    static class Histogram {
+        private final Map<String, LicenseCount> countsByLicense = new HashMap<>();
+
+        public void add(final BomComponent component, final int count) {
+            final String license = component.getLicense();
+            LicenseCount licenseCount = countsByLicense.get(license);
+            if (licenseCount == null) {
+                licenseCount = new LicenseCount();
+                licenseCount.license = license;
+                countsByLicense.put(license, licenseCount);
+            }
+            licenseCount.componentCount += count;
+            switch (RiskLevel.ofLicenseRisk(component)) {
+            case HIGH:
+                licenseCount.highRiskCount += count;
+                break;
+            case MEDIUM:
+                licenseCount.mediumRiskCount += count;
+                break;
+            case LOW:
+                licenseCount.lowRiskCount += count;
+                break;
+            default:
+                break;
+            }
+        }
+
+        /**
+         * @return the licenses used by the most components first
+         */
+        public List<LicenseCount> toList() {
+            final List<LicenseCount> licenseCounts = new ArrayList<>(countsByLicense.values());
+            licenseCounts.sort(MOST_USED_FIRST);
+            return licenseCounts;
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A policy rule and the components that violate it, by their index in {@link ReportData#getComponents()}.
+ */
+public class PolicyRuleViolations {
+    private PolicyRule rule;
+
+    private int[] componentIndexes;
+
+    public PolicyRuleViolations() {
+    }
+
+    public PolicyRuleViolations(final PolicyRule rule, final int[] componentIndexes) {
+        this.rule = rule;
+        this.componentIndexes = componentIndexes;
+    }
+
+    /**
+     * Inverts the violated rules of every component in one pass. Rules with the same name are the same rule, they are listed in the order they are
+     * first violated.
+     */
+    public static List<PolicyRuleViolations> index(final List<BomComponent> components) {
+        final Map<String, Builder> buildersByName = new LinkedHashMap<>();
+        for (int componentIndex = 0; componentIndex < components.size(); componentIndex++) {
+            final BomComponent component = components.get(componentIndex);
+            if (component == null || component.getPolicyRulesViolated() == null) {
+                continue;
+            }
+            for (final PolicyRule rule : component.getPolicyRulesViolated()) {
+                if (rule == null) {
+                    continue;
+                }
+                Builder builder = buildersByName.get(rule.getName());
+                if (builder == null) {
+                    builder = new Builder(rule);
+                    buildersByName.put(rule.getName(), builder);
+                }
+                builder.add(componentIndex);
+            }
+        }
+        final List<PolicyRuleViolations> violations = new ArrayList<>(buildersByName.size());
+        for (final Builder builder : buildersByName.values()) {
+            violations.add(builder.build());
+        }
+        return violations;
+    }
+
+    public PolicyRule getRule() {
+        return rule;
+    }
+
+    public void setRule(final PolicyRule rule) {
+        this.rule = rule;
+    }
+
+    public int[] getComponentIndexes() {
+        return componentIndexes;
+    }
+
+    public void setComponentIndexes(final int[] componentIndexes) {
+        this.componentIndexes = componentIndexes;
+    }
+
+    private static class Builder {
+        private final PolicyRule rule;
+
+        private int[] componentIndexes = new int[4];
+
+        private int size;
+
+        private int lastComponentIndex = -1;
+
+        public Builder(final PolicyRule rule) {
+            this.rule = rule;
+        }
+
+        public void add(final int componentIndex) {
+            // a component listing the same rule twice still violates it once
+            if (componentIndex == lastComponentIndex) {
+                return;
+            }
+            if (size == componentIndexes.length) {
+                componentIndexes = Arrays.copyOf(componentIndexes, size * 2);
+            }
+            componentIndexes[size++] = componentIndex;
+            lastComponentIndex = componentIndex;
+        }
+
+        public PolicyRuleViolations build() {
+            return new PolicyRuleViolations(rule, Arrays.copyOf(componentIndexes, size));
+        }
+    }
+
+}
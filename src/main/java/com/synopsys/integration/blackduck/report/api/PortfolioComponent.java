@@ -0,0 +1,96 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+/**
+ * A component of one of the project versions in a {@link PortfolioReport}.
+ */
+public class PortfolioComponent extends BomComponent {
+    private String projectName;
+
+    private String projectVersion;
+
+    private String projectVersionURL;
+
+    private long riskScore;
+
+    public PortfolioComponent() {
+    }
+
+    public PortfolioComponent(final ReportData reportData, final BomComponent component, final long riskScore) {
+        setPolicyStatus(component.getPolicyStatus());
+        setPolicyRulesViolated(component.getPolicyRulesViolated());
+        setComponentName(component.getComponentName());
+        setComponentURL(component.getComponentURL());
+        setComponentVersion(component.getComponentVersion());
+        setComponentVersionURL(component.getComponentVersionURL());
+        setLicense(component.getLicense());
+        setSecurityRiskHighCount(component.getSecurityRiskHighCount());
+        setSecurityRiskMediumCount(component.getSecurityRiskMediumCount());
+        setSecurityRiskLowCount(component.getSecurityRiskLowCount());
+        setLicenseRiskHighCount(component.getLicenseRiskHighCount());
+        setLicenseRiskMediumCount(component.getLicenseRiskMediumCount());
+        setLicenseRiskLowCount(component.getLicenseRiskLowCount());
+        setOperationalRiskHighCount(component.getOperationalRiskHighCount());
+        setOperationalRiskMediumCount(component.getOperationalRiskMediumCount());
+        setOperationalRiskLowCount(component.getOperationalRiskLowCount());
+        this.projectName = reportData.getProjectName();
+        this.projectVersion = reportData.getProjectVersion();
+        this.projectVersionURL = reportData.getProjectVersionURL();
+        this.riskScore = riskScore;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public void setProjectName(final String projectName) {
+        this.projectName = projectName;
+    }
+
+    public String getProjectVersion() {
+        return projectVersion;
+    }
+
+    public void setProjectVersion(final String projectVersion) {
+        this.projectVersion = projectVersion;
+    }
+
+    public String getProjectVersionURL() {
+        return projectVersionURL;
+    }
+
+    public void setProjectVersionURL(final String projectVersionURL) {
+        this.projectVersionURL = projectVersionURL;
+    }
+
+    public long getRiskScore() {
+        return riskScore;
+    }
+
+    public void setRiskScore(final long riskScore) {
+        this.riskScore = riskScore;
+    }
+
+}
@@ -0,0 +1,213 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The risk of many project versions rolled up into one report. Only the summed counts and the riskiest components are kept, the components of each
+ * project version can be garbage collected as soon as it has been added.
+ */
+public class PortfolioReport implements RiskSummary {
+    public static final int DEFAULT_TOP_COMPONENT_COUNT = 100;
+
+    private int projectCount;
+
+    private int totalComponents;
+
+    private int vulnerabilityRiskHighCount;
+
+    private int vulnerabilityRiskMediumCount;
+
+    private int vulnerabilityRiskLowCount;
+
+    private int vulnerabilityRiskNoneCount;
+
+    private int licenseRiskHighCount;
+
+    private int licenseRiskMediumCount;
+
+    private int licenseRiskLowCount;
+
+    private int licenseRiskNoneCount;
+
+    private int operationalRiskHighCount;
+
+    private int operationalRiskMediumCount;
+
+    private int operationalRiskLowCount;
+
+    private int operationalRiskNoneCount;
+
+    private List<PortfolioComponent> components;
+
+    public static PortfolioReport aggregate(final Collection<ReportData> reports) {
+        return aggregate(reports.parallelStream(), DEFAULT_TOP_COMPONENT_COUNT, ComponentRiskScore.DEFAULT);
+    }
+
+    /**
+     * Sums the reports in parallel when the stream is parallel, every thread adds into its own accumulator and the accumulators are merged at the end.
+     * For thousands of project versions, pass a stream that loads each {@link ReportData} as it is needed so they are never all in memory.
+     * @param topComponentCount how many of the riskiest components across all project versions to keep
+     */
+    public static PortfolioReport aggregate(final Stream<ReportData> reports, final int topComponentCount, final ComponentRiskScore riskScore) {
+        final Accumulator accumulator = reports.collect(() -> new Accumulator(topComponentCount, riskScore), Accumulator::add, Accumulator::addAll);
+        return accumulator.toReport();
+    }
+
+    public int getProjectCount() {
+        return projectCount;
+    }
+
+    @Override
+    public int getTotalComponents() {
+        return totalComponents;
+    }
+
+    @Override
+    public int getVulnerabilityRiskHighCount() {
+        return vulnerabilityRiskHighCount;
+    }
+
+    @Override
+    public int getVulnerabilityRiskMediumCount() {
+        return vulnerabilityRiskMediumCount;
+    }
+
+    @Override
+    public int getVulnerabilityRiskLowCount() {
+        return vulnerabilityRiskLowCount;
+    }
+
+    @Override
+    public int getVulnerabilityRiskNoneCount() {
+        return vulnerabilityRiskNoneCount;
+    }
+
+    @Override
+    public int getLicenseRiskHighCount() {
+        return licenseRiskHighCount;
+    }
+
+    @Override
+    public int getLicenseRiskMediumCount() {
+        return licenseRiskMediumCount;
+    }
+
+    @Override
+    public int getLicenseRiskLowCount() {
+        return licenseRiskLowCount;
+    }
+
+    @Override
+    public int getLicenseRiskNoneCount() {
+        return licenseRiskNoneCount;
+    }
+
+    @Override
+    public int getOperationalRiskHighCount() {
+        return operationalRiskHighCount;
+    }
+
+    @Override
+    public int getOperationalRiskMediumCount() {
+        return operationalRiskMediumCount;
+    }
+
+    @Override
+    public int getOperationalRiskLowCount() {
+        return operationalRiskLowCount;
+    }
+
+    @Override
+    public int getOperationalRiskNoneCount() {
+        return operationalRiskNoneCount;
+    }
+
+    /**
+     * @return the riskiest components across all project versions, riskiest first
+     */
+    public List<PortfolioComponent> getComponents() {
+        return components;
+    }
+
+    private static class Accumulator {
+        private final PortfolioReport report = new PortfolioReport();
+
+        private final RiskiestComponents<PortfolioComponent> riskiestComponents;
+
+        private final ComponentRiskScore riskScore;
+
+        public Accumulator(final int topComponentCount, final ComponentRiskScore riskScore) {
+            this.riskiestComponents = new RiskiestComponents<>(topComponentCount);
+            this.riskScore = riskScore;
+        }
+
+        public void add(final ReportData reportData) {
+            report.projectCount++;
+            addCounts(reportData);
+            if (reportData.getComponents() == null) {
+                return;
+            }
+            for (final BomComponent component : reportData.getComponents()) {
+                if (component != null) {
+                    final long score = riskScore.score(component);
+                    if (riskiestComponents.isCandidate(score)) {
+                        riskiestComponents.offer(new PortfolioComponent(reportData, component, score), score);
+                    }
+                }
+            }
+        }
+
+        public void addAll(final Accumulator other) {
+            report.projectCount += other.report.projectCount;
+            addCounts(other.report);
+            riskiestComponents.addAll(other.riskiestComponents);
+        }
+
+        public PortfolioReport toReport() {
+            report.components = riskiestComponents.toList();
+            return report;
+        }
+
+        private void addCounts(final RiskSummary summary) {
+            report.totalComponents += summary.getTotalComponents();
+            report.vulnerabilityRiskHighCount += summary.getVulnerabilityRiskHighCount();
+            report.vulnerabilityRiskMediumCount += summary.getVulnerabilityRiskMediumCount();
+            report.vulnerabilityRiskLowCount += summary.getVulnerabilityRiskLowCount();
+            report.vulnerabilityRiskNoneCount += summary.getVulnerabilityRiskNoneCount();
+            report.licenseRiskHighCount += summary.getLicenseRiskHighCount();
+            report.licenseRiskMediumCount += summary.getLicenseRiskMediumCount();
+            report.licenseRiskLowCount += summary.getLicenseRiskLowCount();
+            report.licenseRiskNoneCount += summary.getLicenseRiskNoneCount();
+            report.operationalRiskHighCount += summary.getOperationalRiskHighCount();
+            report.operationalRiskMediumCount += summary.getOperationalRiskMediumCount();
+            report.operationalRiskLowCount += summary.getOperationalRiskLowCount();
+            report.operationalRiskNoneCount += summary.getOperationalRiskNoneCount();
+        }
+    }
+
+}
@@ -23,12 +23,19 @@
  */
 package com.synopsys.integration.blackduck.report.api;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
 
-public class ReportData {
+public class ReportData implements RiskSummary {
     private String projectName;
 
     private String projectURL;
@@ -69,6 +76,14 @@ public class ReportData {
 
     private int operationalRiskNoneCount;
 
+    private volatile List<PolicyRuleViolations> policyRuleViolations;
+
+    private volatile List<LicenseCount> licenseCounts;
+
+    /**
+     * @deprecated the html report escapes the data as it is serialized and renders every value as text, so the values need no escaping of their own
+     */
+    @Deprecated
     public String htmlEscape(final String valueToEscape) {
         if (StringUtils.isBlank(valueToEscape)) {
             return null;
@@ -180,9 +195,39 @@ public class ReportData {
         return components;
     }
 
+    /**
+     * @return the number of components per license, the most used license first, built when the components are set
+     */
+    public List<LicenseCount> getLicenseCounts() {
+        final List<LicenseCount> counts = licenseCounts;
+        return counts != null ? counts : countLicenses();
+    }
+
+    /**
+     * @return every violated policy rule with the components that violate it, built when the components are set
+     */
+    public List<PolicyRuleViolations> getPolicyRuleViolations() {
+        final List<PolicyRuleViolations> violations = policyRuleViolations;
+        return violations != null ? violations : indexPolicyRuleViolations();
+    }
+
     public void setComponents(final List<BomComponent> components) {
+        setComponents(components, false);
+    }
+
+    /**
+     * Sets components that were restored along with their counts, license counts and policy rule index, so nothing is counted again.
+     */
+    void setRestoredComponents(final List<BomComponent> components) {
         this.components = components;
+    }
 
+    /**
+     * @param coalesceDuplicates
+     *            true to merge the components with the same name, version and license into one. The merged component has the highest risk counts, the
+     *            policy rules violated by any of them and is in violation if any of them is. The given components are not changed.
+     */
+    public void setComponents(final List<BomComponent> components, final boolean coalesceDuplicates) {
         vulnerabilityRiskHighCount = 0;
         vulnerabilityRiskMediumCount = 0;
         vulnerabilityRiskLowCount = 0;
@@ -195,36 +240,218 @@ public class ReportData {
         operationalRiskMediumCount = 0;
         operationalRiskLowCount = 0;
 
-        for (final BomComponent component : components) {
-            if (component != null) {
-                if (component.getSecurityRiskHighCount() > 0) {
-                    vulnerabilityRiskHighCount++;
-                } else if (component.getSecurityRiskMediumCount() > 0) {
-                    vulnerabilityRiskMediumCount++;
-                } else if (component.getSecurityRiskLowCount() > 0) {
-                    vulnerabilityRiskLowCount++;
-                }
-                if (component.getLicenseRiskHighCount() > 0) {
-                    licenseRiskHighCount++;
-                } else if (component.getLicenseRiskMediumCount() > 0) {
-                    licenseRiskMediumCount++;
-                } else if (component.getLicenseRiskLowCount() > 0) {
-                    licenseRiskLowCount++;
-                }
-                if (component.getOperationalRiskHighCount() > 0) {
-                    operationalRiskHighCount++;
-                } else if (component.getOperationalRiskMediumCount() > 0) {
-                    operationalRiskMediumCount++;
-                } else if (component.getOperationalRiskLowCount() > 0) {
-                    operationalRiskLowCount++;
+        final LicenseCount.Histogram licenseHistogram = new LicenseCount.Histogram();
+        if (coalesceDuplicates) {
+            this.components = coalesce(components, licenseHistogram);
+        } else {
+            this.components = components;
+            for (final BomComponent component : components) {
+                if (component != null) {
+                    countRisk(component, 1, licenseHistogram);
                 }
             }
         }
-        totalComponents = components.size();
+        totalComponents = this.components.size();
+        licenseCounts = licenseHistogram.toList();
+        policyRuleViolations = PolicyRuleViolations.index(this.components);
 
         vulnerabilityRiskNoneCount = totalComponents - vulnerabilityRiskHighCount - vulnerabilityRiskMediumCount - vulnerabilityRiskLowCount;
         licenseRiskNoneCount = totalComponents - licenseRiskHighCount - licenseRiskMediumCount - licenseRiskLowCount;
         operationalRiskNoneCount = totalComponents - operationalRiskHighCount - operationalRiskMediumCount - operationalRiskLowCount;
     }
 
+    /**
+     * Merges the duplicates in one pass, a component whose counts change in a merge is uncounted and counted again so the totals stay right.
+     */
+    private List<BomComponent> coalesce(final List<BomComponent> components, final LicenseCount.Histogram licenseHistogram) {
+        final List<BomComponent> coalescedComponents = new ArrayList<>();
+        final Map<ComponentKey, Integer> componentIndexes = new HashMap<>();
+        final BitSet copiedIndexes = new BitSet();
+        for (final BomComponent component : components) {
+            if (component == null) {
+                continue;
+            }
+            final ComponentKey key = new ComponentKey(component);
+            final Integer index = componentIndexes.get(key);
+            if (index == null) {
+                componentIndexes.put(key, coalescedComponents.size());
+                coalescedComponents.add(component);
+                countRisk(component, 1, licenseHistogram);
+            } else {
+                BomComponent coalescedComponent = coalescedComponents.get(index);
+                countRisk(coalescedComponent, -1, licenseHistogram);
+                if (!copiedIndexes.get(index)) {
+                    // the first duplicate copies the component so the caller's components are never changed
+                    copiedIndexes.set(index);
+                    coalescedComponent = copyComponent(coalescedComponent);
+                    coalescedComponents.set(index, coalescedComponent);
+                }
+                mergeComponent(coalescedComponent, component);
+                countRisk(coalescedComponent, 1, licenseHistogram);
+            }
+        }
+        return coalescedComponents;
+    }
+
+    /**
+     * Report data read from json without the license counts counts them on first use, once under the lock like the policy rule index.
+     */
+    private synchronized List<LicenseCount> countLicenses() {
+        if (licenseCounts == null) {
+            if (components == null) {
+                return Collections.emptyList();
+            }
+            licenseCounts = LicenseCount.histogram(components);
+        }
+        return licenseCounts;
+    }
+
+    /**
+     * Report data read from json without the index gets it on first use. The html and pdf reports can be written at the same time, so it is built once
+     * under the lock.
+     */
+    private synchronized List<PolicyRuleViolations> indexPolicyRuleViolations() {
+        if (policyRuleViolations == null) {
+            if (components == null) {
+                return Collections.emptyList();
+            }
+            policyRuleViolations = PolicyRuleViolations.index(components);
+        }
+        return policyRuleViolations;
+    }
+
+    private void countRisk(final BomComponent component, final int count, final LicenseCount.Histogram licenseHistogram) {
+        licenseHistogram.add(component, count);
+        switch (RiskLevel.ofSecurityRisk(component)) {
+        case HIGH:
+            vulnerabilityRiskHighCount += count;
+            break;
+        case MEDIUM:
+            vulnerabilityRiskMediumCount += count;
+            break;
+        case LOW:
+            vulnerabilityRiskLowCount += count;
+            break;
+        default:
+            break;
+        }
+        switch (RiskLevel.ofLicenseRisk(component)) {
+        case HIGH:
+            licenseRiskHighCount += count;
+            break;
+        case MEDIUM:
+            licenseRiskMediumCount += count;
+            break;
+        case LOW:
+            licenseRiskLowCount += count;
+            break;
+        default:
+            break;
+        }
+        switch (RiskLevel.ofOperationalRisk(component)) {
+        case HIGH:
+            operationalRiskHighCount += count;
+            break;
+        case MEDIUM:
+            operationalRiskMediumCount += count;
+            break;
+        case LOW:
+            operationalRiskLowCount += count;
+            break;
+        default:
+            break;
+        }
+    }
+
+    private BomComponent copyComponent(final BomComponent component) {
+        final BomComponent copy = new BomComponent();
+        copy.setPolicyStatus(component.getPolicyStatus());
+        if (component.getPolicyRulesViolated() != null) {
+            copy.setPolicyRulesViolated(new ArrayList<>(component.getPolicyRulesViolated()));
+        }
+        copy.setComponentName(component.getComponentName());
+        copy.setComponentURL(component.getComponentURL());
+        copy.setComponentVersion(component.getComponentVersion());
+        copy.setComponentVersionURL(component.getComponentVersionURL());
+        copy.setLicense(component.getLicense());
+        copy.setSecurityRiskHighCount(component.getSecurityRiskHighCount());
+        copy.setSecurityRiskMediumCount(component.getSecurityRiskMediumCount());
+        copy.setSecurityRiskLowCount(component.getSecurityRiskLowCount());
+        copy.setLicenseRiskHighCount(component.getLicenseRiskHighCount());
+        copy.setLicenseRiskMediumCount(component.getLicenseRiskMediumCount());
+        copy.setLicenseRiskLowCount(component.getLicenseRiskLowCount());
+        copy.setOperationalRiskHighCount(component.getOperationalRiskHighCount());
+        copy.setOperationalRiskMediumCount(component.getOperationalRiskMediumCount());
+        copy.setOperationalRiskLowCount(component.getOperationalRiskLowCount());
+        return copy;
+    }
+
+    private void mergeComponent(final BomComponent coalescedComponent, final BomComponent duplicate) {
+        if (StringUtils.isBlank(coalescedComponent.getComponentURL())) {
+            coalescedComponent.setComponentURL(duplicate.getComponentURL());
+        }
+        if (StringUtils.isBlank(coalescedComponent.getComponentVersionURL())) {
+            coalescedComponent.setComponentVersionURL(duplicate.getComponentVersionURL());
+        }
+        if (StringUtils.isBlank(coalescedComponent.getPolicyStatus()) || "IN_VIOLATION".equalsIgnoreCase(duplicate.getPolicyStatus())) {
+            coalescedComponent.setPolicyStatus(duplicate.getPolicyStatus());
+        }
+        if (duplicate.getPolicyRulesViolated() != null && !duplicate.getPolicyRulesViolated().isEmpty()) {
+            final Map<String, PolicyRule> rulesByName = new LinkedHashMap<>();
+            if (coalescedComponent.getPolicyRulesViolated() != null) {
+                addPolicyRules(rulesByName, coalescedComponent.getPolicyRulesViolated());
+            }
+            addPolicyRules(rulesByName, duplicate.getPolicyRulesViolated());
+            coalescedComponent.setPolicyRulesViolated(new ArrayList<>(rulesByName.values()));
+        }
+        coalescedComponent.setSecurityRiskHighCount(Math.max(coalescedComponent.getSecurityRiskHighCount(), duplicate.getSecurityRiskHighCount()));
+        coalescedComponent.setSecurityRiskMediumCount(Math.max(coalescedComponent.getSecurityRiskMediumCount(), duplicate.getSecurityRiskMediumCount()));
+        coalescedComponent.setSecurityRiskLowCount(Math.max(coalescedComponent.getSecurityRiskLowCount(), duplicate.getSecurityRiskLowCount()));
+        coalescedComponent.setLicenseRiskHighCount(Math.max(coalescedComponent.getLicenseRiskHighCount(), duplicate.getLicenseRiskHighCount()));
+        coalescedComponent.setLicenseRiskMediumCount(Math.max(coalescedComponent.getLicenseRiskMediumCount(), duplicate.getLicenseRiskMediumCount()));
+        coalescedComponent.setLicenseRiskLowCount(Math.max(coalescedComponent.getLicenseRiskLowCount(), duplicate.getLicenseRiskLowCount()));
+        coalescedComponent.setOperationalRiskHighCount(Math.max(coalescedComponent.getOperationalRiskHighCount(), duplicate.getOperationalRiskHighCount()));
+        coalescedComponent.setOperationalRiskMediumCount(Math.max(coalescedComponent.getOperationalRiskMediumCount(), duplicate.getOperationalRiskMediumCount()));
+        coalescedComponent.setOperationalRiskLowCount(Math.max(coalescedComponent.getOperationalRiskLowCount(), duplicate.getOperationalRiskLowCount()));
+    }
+
+    private void addPolicyRules(final Map<String, PolicyRule> rulesByName, final List<PolicyRule> rules) {
+        for (final PolicyRule rule : rules) {
+            if (rule != null) {
+                rulesByName.putIfAbsent(rule.getName(), rule);
+            }
+        }
+    }
+
+    private static class ComponentKey {
+        private final String name;
+        private final String version;
+        private final String license;
+        private final int hashCode;
+
+        public ComponentKey(final BomComponent component) {
+            this.name = component.getComponentName();
+            this.version = component.getComponentVersion();
+            this.license = component.getLicense();
+            this.hashCode = Objects.hash(name, version, license);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ComponentKey)) {
+                return false;
+            }
+            final ComponentKey otherKey = (ComponentKey) other;
+            return hashCode == otherKey.hashCode && Objects.equals(name, otherKey.name) && Objects.equals(version, otherKey.version) && Objects.equals(license, otherKey.license);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
 }
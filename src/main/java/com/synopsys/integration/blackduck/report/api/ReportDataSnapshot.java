@@ -0,0 +1,411 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * A binary copy of a {@link ReportData} for handing it from one process to another. The components are read from a memory mapped file as they are
+ * used, so a report can be written from a snapshot without decoding all of it first.
+ * <p>
+ * Layout, version 1, big endian:
+ * <ul>
+ * <li>header: magic, version, component count or -1 for no component list, string table offset, component index offset and summary offset</li>
+ * <li>components: string references and counts as varints, a string reference is its index in the string table plus one, zero is null</li>
+ * <li>string table: string count, the offset of every string, then every distinct string as a varint length and its UTF-8 bytes</li>
+ * <li>component index: the offset of every component, -1 for a null component</li>
+ * <li>summary: the report data without its components as json, which is small and keeps the summary fields exactly as the json model has them</li>
+ * </ul>
+ * A snapshot is limited to 2 GB, the largest buffer a file can be mapped to.
+ */
+public class ReportDataSnapshot implements Closeable {
+    public static final int MAGIC = 0x5252534E;
+
+    public static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH = 24;
+
+    private static final String COMPONENTS_FIELD = "components";
+
+    private static final Gson SUMMARY_GSON = new GsonBuilder().addSerializationExclusionStrategy(new ExclusionStrategy() {
+        @Override
+        public boolean shouldSkipField(final FieldAttributes field) {
+            return field.getDeclaringClass() == ReportData.class && COMPONENTS_FIELD.equals(field.getName());
+        }
+
+        @Override
+        public boolean shouldSkipClass(final Class<?> clazz) {
+            return false;
+        }
+    }).create();
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer;
+
+    private final boolean hasComponents;
+
+    private final int componentCount;
+
+    private final int stringTableOffset;
+
+    private final int componentIndexOffset;
+
+    private final int summaryOffset;
+
+    private final String[] strings;
+
+    private ReportDataSnapshot(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_LENGTH || buffer.getInt(0) != MAGIC) {
+            throw new IOException("The file is not a report data snapshot.");
+        }
+        final int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported report data snapshot version : " + version);
+        }
+        hasComponents = buffer.getInt(8) >= 0;
+        componentCount = Math.max(buffer.getInt(8), 0);
+        stringTableOffset = buffer.getInt(12);
+        componentIndexOffset = buffer.getInt(16);
+        summaryOffset = buffer.getInt(20);
+        // a truncated or damaged file fails here instead of with a huge allocation or an index out of bounds while it is read
+        if (stringTableOffset < HEADER_LENGTH || componentIndexOffset < stringTableOffset + 4L || summaryOffset < componentIndexOffset + 4L * componentCount
+                || summaryOffset >= buffer.capacity()) {
+            throw new IOException("The report data snapshot is truncated or damaged.");
+        }
+        final int stringCount = buffer.getInt(stringTableOffset);
+        if (stringCount < 0 || stringTableOffset + 4L + 4L * stringCount > componentIndexOffset) {
+            throw new IOException("The report data snapshot is truncated or damaged.");
+        }
+        strings = new String[stringCount];
+    }
+
+    public static void write(final File snapshotFile, final ReportData reportData) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            output.write(new byte[HEADER_LENGTH]);
+
+            final Map<String, Integer> stringIndexes = new HashMap<>();
+            final List<String> strings = new ArrayList<>();
+            final List<BomComponent> components = reportData.getComponents();
+            final int[] componentOffsets = new int[components == null ? 0 : components.size()];
+            for (int i = 0; i < componentOffsets.length; i++) {
+                final BomComponent component = components.get(i);
+                if (component == null) {
+                    componentOffsets[i] = -1;
+                } else {
+                    componentOffsets[i] = output.size();
+                    writeComponent(output, component, stringIndexes, strings);
+                }
+            }
+
+            final int stringTableOffset = output.size();
+            output.writeInt(strings.size());
+            final byte[][] encodedStrings = new byte[strings.size()][];
+            int stringOffset = stringTableOffset + 4 + 4 * strings.size();
+            for (int i = 0; i < encodedStrings.length; i++) {
+                encodedStrings[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                output.writeInt(stringOffset);
+                stringOffset += varintLength(encodedStrings[i].length) + encodedStrings[i].length;
+            }
+            for (final byte[] encodedString : encodedStrings) {
+                writeVarint(output, encodedString.length);
+                output.write(encodedString);
+            }
+
+            final int componentIndexOffset = output.size();
+            for (final int componentOffset : componentOffsets) {
+                output.writeInt(componentOffset);
+            }
+
+            final int summaryOffset = output.size();
+            final byte[] summary = SUMMARY_GSON.toJson(reportData).getBytes(StandardCharsets.UTF_8);
+            writeVarint(output, summary.length);
+            output.write(summary);
+            output.flush();
+            // the written byte count stops at the largest int instead of overflowing
+            if (output.size() == Integer.MAX_VALUE) {
+                throw new IOException("The report data is too large for a snapshot.");
+            }
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(MAGIC).putInt(VERSION).putInt(components == null ? -1 : componentOffsets.length).putInt(stringTableOffset).putInt(componentIndexOffset).putInt(summaryOffset);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    /**
+     * Maps the snapshot file, the file is only read while the snapshot or the report data read from it are used.
+     */
+    public static ReportDataSnapshot open(final File snapshotFile) throws IOException {
+        final FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The file is too large to be a report data snapshot.");
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ReportDataSnapshot(channel, buffer);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Decodes one component, every call returns a new copy.
+     */
+    public BomComponent getComponent(final int index) {
+        if (index < 0 || index >= componentCount) {
+            throw new IndexOutOfBoundsException("Component " + index + " of " + componentCount);
+        }
+        final int componentOffset = buffer.getInt(componentIndexOffset + 4 * index);
+        if (componentOffset < 0) {
+            return null;
+        }
+        return new Reader(componentOffset).readComponent();
+    }
+
+    /**
+     * @return the report data with components that are decoded each time they are read, the list can not be changed
+     */
+    public ReportData toReportData() {
+        final Reader reader = new Reader(summaryOffset);
+        final ReportData reportData = SUMMARY_GSON.fromJson(reader.readString(reader.readVarint()), ReportData.class);
+        if (hasComponents) {
+            reportData.setRestoredComponents(new SnapshotComponents());
+        }
+        return reportData;
+    }
+
+    /**
+     * Closes the file, the mapped buffer is released when it is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void writeComponent(final DataOutputStream output, final BomComponent component, final Map<String, Integer> stringIndexes, final List<String> strings)
+            throws IOException {
+        writeString(output, component.getPolicyStatus(), stringIndexes, strings);
+        if (component.getPolicyRulesViolated() == null) {
+            writeVarint(output, 0);
+        } else {
+            writeVarint(output, component.getPolicyRulesViolated().size() + 1);
+            for (final PolicyRule policyRule : component.getPolicyRulesViolated()) {
+                if (policyRule == null) {
+                    writeVarint(output, 0);
+                } else {
+                    writeVarint(output, 1);
+                    writeString(output, policyRule.getName(), stringIndexes, strings);
+                    writeString(output, policyRule.getDescription(), stringIndexes, strings);
+                }
+            }
+        }
+        writeString(output, component.getComponentName(), stringIndexes, strings);
+        writeString(output, component.getComponentURL(), stringIndexes, strings);
+        writeString(output, component.getComponentVersion(), stringIndexes, strings);
+        writeString(output, component.getComponentVersionURL(), stringIndexes, strings);
+        writeString(output, component.getLicense(), stringIndexes, strings);
+        writeCount(output, component.getSecurityRiskHighCount());
+        writeCount(output, component.getSecurityRiskMediumCount());
+        writeCount(output, component.getSecurityRiskLowCount());
+        writeCount(output, component.getLicenseRiskHighCount());
+        writeCount(output, component.getLicenseRiskMediumCount());
+        writeCount(output, component.getLicenseRiskLowCount());
+        writeCount(output, component.getOperationalRiskHighCount());
+        writeCount(output, component.getOperationalRiskMediumCount());
+        writeCount(output, component.getOperationalRiskLowCount());
+    }
+
+    private static void writeString(final DataOutputStream output, final String value, final Map<String, Integer> stringIndexes, final List<String> strings) throws IOException {
+        if (value == null) {
+            writeVarint(output, 0);
+            return;
+        }
+        Integer stringIndex = stringIndexes.get(value);
+        if (stringIndex == null) {
+            stringIndex = strings.size();
+            stringIndexes.put(value, stringIndex);
+            strings.add(value);
+        }
+        writeVarint(output, stringIndex + 1);
+    }
+
+    /**
+     * Counts are zigzag encoded, so the rare negative count read from json still takes few bytes.
+     */
+    private static void writeCount(final DataOutputStream output, final int count) throws IOException {
+        writeVarint(output, (count << 1) ^ (count >> 31));
+    }
+
+    private static void writeVarint(final DataOutputStream output, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            output.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.writeByte(remaining);
+    }
+
+    private static int varintLength(final int value) {
+        int length = 1;
+        int remaining = value >>> 7;
+        while (remaining != 0) {
+            length++;
+            remaining >>>= 7;
+        }
+        return length;
+    }
+
+    private String getString(final int stringIndex) {
+        String value = strings[stringIndex];
+        if (value == null) {
+            final Reader reader = new Reader(buffer.getInt(stringTableOffset + 4 + 4 * stringIndex));
+            value = reader.readString(reader.readVarint());
+            // racing readers decode the same value, so the cache needs no lock
+            strings[stringIndex] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Reads from its own position with absolute gets, so any number of readers can share the buffer.
+     */
+    private class Reader {
+        private int position;
+
+        public Reader(final int position) {
+            this.position = position;
+        }
+
+        public BomComponent readComponent() {
+            final BomComponent component = new BomComponent();
+            component.setPolicyStatus(readStringReference());
+            final int policyRuleCount = readVarint() - 1;
+            if (policyRuleCount >= 0) {
+                final List<PolicyRule> policyRules = new ArrayList<>(policyRuleCount);
+                for (int i = 0; i < policyRuleCount; i++) {
+                    if (readVarint() == 0) {
+                        policyRules.add(null);
+                    } else {
+                        final PolicyRule policyRule = new PolicyRule();
+                        policyRule.setName(readStringReference());
+                        policyRule.setDescription(readStringReference());
+                        policyRules.add(policyRule);
+                    }
+                }
+                component.setPolicyRulesViolated(policyRules);
+            }
+            component.setComponentName(readStringReference());
+            component.setComponentURL(readStringReference());
+            component.setComponentVersion(readStringReference());
+            component.setComponentVersionURL(readStringReference());
+            component.setLicense(readStringReference());
+            component.setSecurityRiskHighCount(readCount());
+            component.setSecurityRiskMediumCount(readCount());
+            component.setSecurityRiskLowCount(readCount());
+            component.setLicenseRiskHighCount(readCount());
+            component.setLicenseRiskMediumCount(readCount());
+            component.setLicenseRiskLowCount(readCount());
+            component.setOperationalRiskHighCount(readCount());
+            component.setOperationalRiskMediumCount(readCount());
+            component.setOperationalRiskLowCount(readCount());
+            return component;
+        }
+
+        public String readStringReference() {
+            final int stringReference = readVarint();
+            return stringReference == 0 ? null : getString(stringReference - 1);
+        }
+
+        public String readString(final int length) {
+            final byte[] encoded = new byte[length];
+            final ByteBuffer source = buffer.duplicate();
+            source.position(position);
+            source.get(encoded);
+            position += length;
+            return new String(encoded, StandardCharsets.UTF_8);
+        }
+
+        public int readCount() {
+            final int encoded = readVarint();
+            return (encoded >>> 1) ^ -(encoded & 1);
+        }
+
+        public int readVarint() {
+            int value = 0;
+            for (int shift = 0;; shift += 7) {
+                final byte encoded = buffer.get(position++);
+                value |= (encoded & 0x7F) << shift;
+                if (encoded >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    private class SnapshotComponents extends AbstractList<BomComponent> implements RandomAccess {
+        @Override
+        public BomComponent get(final int index) {
+            return getComponent(index);
+        }
+
+        @Override
+        public int size() {
+            return componentCount;
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+/**
+ * The risk of a component in one category, which is its highest level with a count. The summary counts, the pdf report and the export all classify
+ * components by it.
+ */
+public enum RiskLevel {
+    HIGH,
+    MEDIUM,
+    LOW,
+    NONE;
+
+    public static RiskLevel of(final int highCount, final int mediumCount, final int lowCount) {
+        if (highCount > 0) {
+            return HIGH;
+        } else if (mediumCount > 0) {
+            return MEDIUM;
+        } else if (lowCount > 0) {
+            return LOW;
+        }
+        return NONE;
+    }
+
+    public static RiskLevel ofSecurityRisk(final BomComponent component) {
+        return of(component.getSecurityRiskHighCount(), component.getSecurityRiskMediumCount(), component.getSecurityRiskLowCount());
+    }
+
+    public static RiskLevel ofLicenseRisk(final BomComponent component) {
+        return of(component.getLicenseRiskHighCount(), component.getLicenseRiskMediumCount(), component.getLicenseRiskLowCount());
+    }
+
+    public static RiskLevel ofOperationalRisk(final BomComponent component) {
+        return of(component.getOperationalRiskHighCount(), component.getOperationalRiskMediumCount(), component.getOperationalRiskLowCount());
+    }
+
+}
@@ -0,0 +1,56 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+/**
+ * The component counts shown in the summary tables. A component is counted once per category, at its highest risk level.
+ */
+public interface RiskSummary {
+    int getTotalComponents();
+
+    int getVulnerabilityRiskHighCount();
+
+    int getVulnerabilityRiskMediumCount();
+
+    int getVulnerabilityRiskLowCount();
+
+    int getVulnerabilityRiskNoneCount();
+
+    int getLicenseRiskHighCount();
+
+    int getLicenseRiskMediumCount();
+
+    int getLicenseRiskLowCount();
+
+    int getLicenseRiskNoneCount();
+
+    int getOperationalRiskHighCount();
+
+    int getOperationalRiskMediumCount();
+
+    int getOperationalRiskLowCount();
+
+    int getOperationalRiskNoneCount();
+
+}
@@ -0,0 +1,120 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the highest scoring items seen so far in a heap of a fixed size, so picking the riskiest N of many components needs neither a sort nor more
+ * than N items in memory. When scores tie, the item offered first is kept.
+ */
+public class RiskiestComponents<T> {
+    // the head of the heap is the entry to drop next, the lowest score and of those the one offered last
+    private static final Comparator<Entry<?>> LEAST_RISKY_FIRST = (first, second) -> {
+        final int scoreComparison = Long.compare(first.score, second.score);
+        return scoreComparison != 0 ? scoreComparison : Long.compare(second.sequence, first.sequence);
+    };
+
+    private final int limit;
+
+    private final PriorityQueue<Entry<T>> heap;
+
+    private long nextSequence;
+
+    public RiskiestComponents(final int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("The number of components to keep can not be negative : " + limit);
+        }
+        this.limit = limit;
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)), LEAST_RISKY_FIRST);
+    }
+
+    /**
+     * Whether an item with this score would be kept, so callers can skip building items that would be dropped straight away.
+     */
+    public boolean isCandidate(final long score) {
+        return heap.size() < limit || (limit > 0 && score > heap.peek().score);
+    }
+
+    public void offer(final T item, final long score) {
+        if (isCandidate(score)) {
+            keep(new Entry<>(item, score, nextSequence++));
+        }
+    }
+
+    /**
+     * Merges the items kept by another instance, they count as offered after every item of this one.
+     */
+    public void addAll(final RiskiestComponents<T> other) {
+        for (final Entry<T> entry : other.toEntryList()) {
+            offer(entry.item, entry.score);
+        }
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * @return the kept items, riskiest first
+     */
+    public List<T> toList() {
+        final List<Entry<T>> entries = toEntryList();
+        final List<T> items = new ArrayList<>(entries.size());
+        for (final Entry<T> entry : entries) {
+            items.add(entry.item);
+        }
+        return items;
+    }
+
+    private List<Entry<T>> toEntryList() {
+        final List<Entry<T>> entries = new ArrayList<>(heap);
+        entries.sort(Collections.reverseOrder(LEAST_RISKY_FIRST));
+        return entries;
+    }
+
+    private void keep(final Entry<T> entry) {
+        if (heap.size() == limit) {
+            heap.poll();
+        }
+        heap.add(entry);
+    }
+
+    private static class Entry<T> {
+        private final T item;
+        private final long score;
+        private final long sequence;
+
+        public Entry(final T item, final long score, final long sequence) {
+            this.item = item;
+            this.score = score;
+            this.sequence = sequence;
+        }
+    }
+
+}
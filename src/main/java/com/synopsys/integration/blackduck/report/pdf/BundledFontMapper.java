@@ -0,0 +1,116 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import java.awt.geom.GeneralPath;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.apache.fontbox.FontBoxFont;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.fontbox.util.BoundingBox;
+import org.apache.pdfbox.pdmodel.font.CIDFontMapping;
+import org.apache.pdfbox.pdmodel.font.FontMapper;
+import org.apache.pdfbox.pdmodel.font.FontMapping;
+import org.apache.pdfbox.pdmodel.font.PDCIDSystemInfo;
+import org.apache.pdfbox.pdmodel.font.PDFontDescriptor;
+
+/**
+ * Maps every font to the Liberation Sans font bundled inside PDFBox. The default PDFBox mapper scans and caches every font installed on the system the
+ * first time a standard 14 font is created, which is where the first report in a JVM spends most of its time.
+ */
+class BundledFontMapper implements FontMapper {
+    private static final String BUNDLED_FONT = "/org/apache/pdfbox/resources/ttf/LiberationSans-Regular.ttf";
+
+    private final FontBoxFont lazyBundledFont = new LazyBundledFont();
+
+    private TrueTypeFont bundledFont;
+
+    @Override
+    public FontMapping<TrueTypeFont> getTrueTypeFont(final String baseFont, final PDFontDescriptor fontDescriptor) {
+        return new FontMapping<>(getBundledFont(), true);
+    }
+
+    @Override
+    public FontMapping<FontBoxFont> getFontBoxFont(final String baseFont, final PDFontDescriptor fontDescriptor) {
+        // the standard 14 fonts take their metrics from the built in AFM files, the mapped font is only used to render glyphs, which writing a report
+        // never does, so it is neither parsed up front nor reported as a fallback
+        return new FontMapping<>(lazyBundledFont, false);
+    }
+
+    @Override
+    public CIDFontMapping getCIDFont(final String baseFont, final PDFontDescriptor fontDescriptor, final PDCIDSystemInfo cidSystemInfo) {
+        return new CIDFontMapping(null, getBundledFont(), true);
+    }
+
+    private synchronized TrueTypeFont getBundledFont() {
+        if (bundledFont == null) {
+            try (InputStream fontStream = BundledFontMapper.class.getResourceAsStream(BUNDLED_FONT)) {
+                if (fontStream == null) {
+                    throw new IOException("Could not find the font : " + BUNDLED_FONT);
+                }
+                bundledFont = new TTFParser().parse(fontStream);
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Couldn't load the bundled font: " + e.getMessage(), e);
+            }
+        }
+        return bundledFont;
+    }
+
+    private class LazyBundledFont implements FontBoxFont {
+        @Override
+        public String getName() throws IOException {
+            return "LiberationSans";
+        }
+
+        @Override
+        public BoundingBox getFontBBox() throws IOException {
+            return getBundledFont().getFontBBox();
+        }
+
+        @Override
+        public List<Number> getFontMatrix() throws IOException {
+            return getBundledFont().getFontMatrix();
+        }
+
+        @Override
+        public GeneralPath getPath(final String name) throws IOException {
+            return getBundledFont().getPath(name);
+        }
+
+        @Override
+        public float getWidth(final String name) throws IOException {
+            return getBundledFont().getWidth(name);
+        }
+
+        @Override
+        public boolean hasGlyph(final String name) throws IOException {
+            return getBundledFont().hasGlyph(name);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import java.util.zip.Deflater;
+
+/**
+ * Controls how much work is spent shrinking the risk report pdf before it is saved.
+ */
+public class PdfCompressionProfile {
+    /**
+     * Saves the document exactly as PDFBox produced it.
+     */
+    public static final PdfCompressionProfile DEFAULT = new PdfCompressionProfile(Deflater.DEFAULT_COMPRESSION, false);
+
+    /**
+     * Re-deflates every content stream at the best compression level and embeds identical images only once. PDFBox 2.0 can not write object streams
+     * or cross-reference streams, so the objects and the cross-reference table are written the same way as with {@link #DEFAULT}.
+     */
+    public static final PdfCompressionProfile COMPACT = new PdfCompressionProfile(Deflater.BEST_COMPRESSION, true);
+
+    private final int compressionLevel;
+
+    private final boolean deduplicateImages;
+
+    /**
+     * @param compressionLevel
+     *            the {@link Deflater} level used for the page content streams, {@link Deflater#DEFAULT_COMPRESSION} keeps the PDFBox output
+     * @param deduplicateImages
+     *            true if images with identical data should share a single embedded copy
+     */
+    public PdfCompressionProfile(final int compressionLevel, final boolean deduplicateImages) {
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION && (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("The compression level must be between 0 and 9, or -1 for the default, but was " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+        this.deduplicateImages = deduplicateImages;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public boolean isDeduplicateImages() {
+        return deduplicateImages;
+    }
+
+    public boolean isRecompressContentStreams() {
+        return compressionLevel != Deflater.DEFAULT_COMPRESSION;
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * Applies a {@link PdfCompressionProfile} to a document right before it is written.
+ */
+class PdfDocumentCompactor {
+    private final PdfCompressionProfile compressionProfile;
+
+    public PdfDocumentCompactor(final PdfCompressionProfile compressionProfile) {
+        this.compressionProfile = compressionProfile;
+    }
+
+    public void compact(final PDDocument document) throws IOException {
+        if (compressionProfile.isDeduplicateImages()) {
+            deduplicateImages(document);
+        }
+        if (compressionProfile.isRecompressContentStreams()) {
+            recompressContentStreams(document);
+        }
+    }
+
+    private void deduplicateImages(final PDDocument document) throws IOException {
+        final Map<String, PDImageXObject> imagesByDigest = new HashMap<>();
+        for (final PDPage page : document.getPages()) {
+            final PDResources resources = page.getResources();
+            if (resources == null) {
+                continue;
+            }
+            for (final COSName name : resources.getXObjectNames()) {
+                final PDXObject xObject = resources.getXObject(name);
+                if (!(xObject instanceof PDImageXObject)) {
+                    continue;
+                }
+                final PDImageXObject image = (PDImageXObject) xObject;
+                final String digest = computeImageDigest(image);
+                final PDImageXObject sharedImage = imagesByDigest.get(digest);
+                if (sharedImage == null) {
+                    imagesByDigest.put(digest, image);
+                } else if (sharedImage.getCOSObject() != image.getCOSObject()) {
+                    // the duplicate is no longer referenced so it will not be written
+                    resources.put(name, sharedImage);
+                }
+            }
+        }
+    }
+
+    private String computeImageDigest(final PDImageXObject image) throws IOException {
+        final MessageDigest messageDigest = createMessageDigest();
+        messageDigest.update((image.getWidth() + "x" + image.getHeight() + ":" + image.getCOSObject().getFilters() + ":").getBytes("UTF-8"));
+        updateDigest(messageDigest, image.getCOSObject());
+        final PDImageXObject softMask = image.getSoftMask();
+        if (softMask != null) {
+            updateDigest(messageDigest, softMask.getCOSObject());
+        }
+        return Base64.getEncoder().encodeToString(messageDigest.digest());
+    }
+
+    private void updateDigest(final MessageDigest messageDigest, final COSStream stream) throws IOException {
+        final byte[] buffer = new byte[8192];
+        try (InputStream rawStream = stream.createRawInputStream()) {
+            int read;
+            while ((read = rawStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    private MessageDigest createMessageDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException("Couldn't compare the report images: " + e.getMessage(), e);
+        }
+    }
+
+    private void recompressContentStreams(final PDDocument document) throws IOException {
+        for (final PDPage page : document.getPages()) {
+            final Iterator<PDStream> contentStreams = page.getContentStreams();
+            while (contentStreams.hasNext()) {
+                recompress(contentStreams.next().getCOSObject());
+            }
+        }
+    }
+
+    private void recompress(final COSStream stream) throws IOException {
+        final COSBase filters = stream.getFilters();
+        if (filters != null && !COSName.FLATE_DECODE.equals(filters)) {
+            // only plain deflated or unfiltered streams can be re-encoded without knowing the other filters parameters
+            return;
+        }
+        if (stream.getDictionaryObject(COSName.DECODE_PARMS) != null) {
+            return;
+        }
+        final byte[] decodedContent;
+        try (InputStream decodedStream = stream.createInputStream()) {
+            decodedContent = IOUtils.toByteArray(decodedStream);
+        }
+        final Deflater deflater = new Deflater(compressionProfile.getCompressionLevel());
+        try (OutputStream encodedStream = new DeflaterOutputStream(stream.createRawOutputStream(), deflater)) {
+            encodedStream.write(decodedContent);
+        } finally {
+            deflater.end();
+        }
+        stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+    }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import com.synopsys.integration.blackduck.report.RiskReportResourceCopier;
+import com.synopsys.integration.blackduck.report.api.ComponentRiskScore;
+
+/**
+ * Limits the component table of the risk report pdf to the riskiest components. The summary tables still count every component, and a footer links to
+ * the full html report for the rest.
+ */
+public class PdfExecutiveSummary {
+    public static final int DEFAULT_COMPONENT_COUNT = 25;
+
+    private final int componentCount;
+
+    private final ComponentRiskScore riskScore;
+
+    private final String fullReportLink;
+
+    /**
+     * Shows the default number of components, scored with {@link ComponentRiskScore#DEFAULT}, and links to the html report written next to the pdf.
+     */
+    public PdfExecutiveSummary() {
+        this(DEFAULT_COMPONENT_COUNT, ComponentRiskScore.DEFAULT, RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME);
+    }
+
+    /**
+     * @param componentCount
+     *            how many of the riskiest components to show
+     * @param riskScore
+     *            ranks the components
+     * @param fullReportLink
+     *            the link to the full report in the footer, relative links are resolved against the location of the pdf
+     */
+    public PdfExecutiveSummary(final int componentCount, final ComponentRiskScore riskScore, final String fullReportLink) {
+        if (componentCount < 0) {
+            throw new IllegalArgumentException("The number of components can not be negative : " + componentCount);
+        }
+        this.componentCount = componentCount;
+        this.riskScore = riskScore;
+        this.fullReportLink = fullReportLink;
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    public ComponentRiskScore getRiskScore() {
+        return riskScore;
+    }
+
+    public String getFullReportLink() {
+        return fullReportLink;
+    }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * Decodes and encodes each report image once per JVM. Every document afterwards only copies the already encoded image data into a new stream.
+ */
+class PdfImageCache {
+    private static final Map<String, EncodedStream> ENCODED_IMAGES = new ConcurrentHashMap<>();
+
+    private PdfImageCache() {
+    }
+
+    public static PDImageXObject createImage(final PDDocument document, final String resourceImageName) throws IOException {
+        EncodedStream encodedImage = ENCODED_IMAGES.get(resourceImageName);
+        if (encodedImage == null) {
+            encodedImage = encodeImage(resourceImageName);
+            if (encodedImage == null) {
+                // the image uses something that can not be shared between documents, so it is embedded the slow way
+                return PDImageXObject.createFromByteArray(document, readResource(resourceImageName), resourceImageName);
+            }
+            ENCODED_IMAGES.putIfAbsent(resourceImageName, encodedImage);
+        }
+        return new PDImageXObject(new PDStream(encodedImage.copyTo(document)), null);
+    }
+
+    private static EncodedStream encodeImage(final String resourceImageName) throws IOException {
+        try (PDDocument scratchDocument = new PDDocument()) {
+            final PDImageXObject image = PDImageXObject.createFromByteArray(scratchDocument, readResource(resourceImageName), resourceImageName);
+            return EncodedStream.capture(image.getCOSObject());
+        }
+    }
+
+    private static byte[] readResource(final String resourceName) throws IOException {
+        try (InputStream resourceStream = PdfImageCache.class.getResourceAsStream(resourceName)) {
+            if (resourceStream == null) {
+                throw new IOException("Could not find the image : " + resourceName);
+            }
+            return IOUtils.toByteArray(resourceStream);
+        }
+    }
+
+    private static class EncodedStream {
+        private final Map<COSName, COSBase> entries = new HashMap<>();
+        private final Map<COSName, EncodedStream> nestedStreams = new HashMap<>();
+        private byte[] encodedContent;
+
+        /**
+         * Only immutable values and nested streams are kept, anything else makes the stream document specific and null is returned.
+         */
+        public static EncodedStream capture(final COSStream stream) throws IOException {
+            final EncodedStream encodedStream = new EncodedStream();
+            for (final Map.Entry<COSName, COSBase> entry : stream.entrySet()) {
+                if (COSName.LENGTH.equals(entry.getKey())) {
+                    continue;
+                }
+                COSBase value = entry.getValue();
+                if (value instanceof COSObject) {
+                    value = ((COSObject) value).getObject();
+                }
+                if (value instanceof COSStream) {
+                    final EncodedStream nestedStream = capture((COSStream) value);
+                    if (nestedStream == null) {
+                        return null;
+                    }
+                    encodedStream.nestedStreams.put(entry.getKey(), nestedStream);
+                } else if (value instanceof COSName || value instanceof COSNumber || value instanceof COSBoolean) {
+                    encodedStream.entries.put(entry.getKey(), value);
+                } else {
+                    return null;
+                }
+            }
+            try (InputStream rawContent = stream.createRawInputStream()) {
+                encodedStream.encodedContent = IOUtils.toByteArray(rawContent);
+            }
+            return encodedStream;
+        }
+
+        public COSStream copyTo(final PDDocument document) throws IOException {
+            final COSStream stream = document.getDocument().createCOSStream();
+            for (final Map.Entry<COSName, COSBase> entry : entries.entrySet()) {
+                stream.setItem(entry.getKey(), entry.getValue());
+            }
+            for (final Map.Entry<COSName, EncodedStream> nestedStream : nestedStreams.entrySet()) {
+                stream.setItem(nestedStream.getKey(), nestedStream.getValue().copyTo(document));
+            }
+            try (OutputStream rawContent = stream.createRawOutputStream()) {
+                rawContent.write(encodedContent);
+            }
+            return stream;
+        }
+    }
+
+}
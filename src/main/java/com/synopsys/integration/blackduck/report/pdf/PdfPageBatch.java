@@ -0,0 +1,287 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.interactive.action.PDActionURI;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationLink;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDBorderStyleDictionary;
+import org.apache.pdfbox.util.Matrix;
+
+/**
+ * Collects the drawing operations for a single page and writes them as one content stream: one path per fill color and one text object with a font or
+ * color change only where the style actually changes.
+ */
+class PdfPageBatch {
+    private final PDDocument document;
+
+    private final Map<String, PDImageXObject> imagesByResource = new HashMap<>();
+
+    private final Map<String, PDActionURI> actionsByUrl = new HashMap<>();
+
+    private final PDBorderStyleDictionary linkBorderStyle = new PDBorderStyleDictionary();
+
+    private final Map<PDFormXObject, List<PDRectangle>> formPlacements = new LinkedHashMap<>();
+
+    private final Map<Color, List<PDRectangle>> fillsByColor = new LinkedHashMap<>();
+
+    private final Map<PDImageXObject, List<PDRectangle>> imagePlacements = new LinkedHashMap<>();
+
+    private final Map<TextStyle, List<TextRun>> textRunsByStyle = new LinkedHashMap<>();
+
+    private final List<PDAnnotationLink> links = new ArrayList<>();
+
+    private PDPage page;
+
+    public PdfPageBatch(final PDDocument document) {
+        this.document = document;
+        linkBorderStyle.setWidth(0);
+    }
+
+    /**
+     * Everything collected so far is written to the previous page before switching.
+     */
+    public void switchToPage(final PDPage page) throws IOException {
+        if (this.page != page) {
+            flush();
+            this.page = page;
+        }
+    }
+
+    public PDRectangle drawForm(final PDFormXObject form, final float x, final float y) {
+        final PDRectangle boundingBox = form.getBBox();
+        final PDRectangle rectangle = new PDRectangle(x, y, boundingBox.getWidth(), boundingBox.getHeight());
+        formPlacements.computeIfAbsent(form, key -> new ArrayList<>()).add(rectangle);
+        return rectangle;
+    }
+
+    public PDRectangle fillRectangle(final float x, final float y, final float width, final float height, final Color color) {
+        final PDRectangle rectangle = new PDRectangle(x, y, width, height);
+        fillsByColor.computeIfAbsent(color, key -> new ArrayList<>()).add(rectangle);
+        return rectangle;
+    }
+
+    public PDRectangle fillRectangleCentered(final float centerX, final float cellUpperY, final float width, final float height, final float cellHeight, final Color color) {
+        return fillRectangle(centerX - (width / 2), cellUpperY - (cellHeight / 2) - (height / 2), width, height, color);
+    }
+
+    public PDRectangle drawImageCentered(final float x, final float cellUpperY, final float width, final float height, final float cellWidth, final float cellHeight, final String resourceImageName)
+            throws IOException {
+        final PDRectangle rectangle = new PDRectangle(x + (cellWidth / 2) - (width / 2), cellUpperY - (cellHeight / 2) - (height / 2), width, height);
+        imagePlacements.computeIfAbsent(getImage(resourceImageName), key -> new ArrayList<>()).add(rectangle);
+        return rectangle;
+    }
+
+    public PDRectangle writeText(final float x, final float y, final String text, final PDFont font, final float fontSize, final Color color) throws IOException {
+        final String printableText = toPrintableText(text, font);
+        textRunsByStyle.computeIfAbsent(new TextStyle(font, fontSize, color), key -> new ArrayList<>()).add(new TextRun(x, y, printableText));
+        return new PDRectangle(x, y, getStringWidth(printableText, font, fontSize), fontSize);
+    }
+
+    public PDRectangle writeTextCentered(final float centerX, final float cellUpperY, final float cellHeight, final String text, final PDFont font, final float fontSize, final Color color) throws IOException {
+        final String printableText = toPrintableText(text, font);
+        final float textWidth = getStringWidth(printableText, font, fontSize);
+        return writeText(centerX - (textWidth / 2), cellUpperY - (cellHeight / 2) - (fontSize / 3), printableText, font, fontSize, color);
+    }
+
+    public void addLink(final PDRectangle rectangle, final String url) {
+        if (StringUtils.isBlank(url)) {
+            return;
+        }
+        // links to the same url share their action, so it is written once instead of once per row
+        final PDActionURI action = actionsByUrl.computeIfAbsent(url, key -> {
+            final PDActionURI uriAction = new PDActionURI();
+            uriAction.setURI(key);
+            return uriAction;
+        });
+
+        final PDAnnotationLink link = new PDAnnotationLink();
+        link.setBorderStyle(linkBorderStyle);
+        link.setAction(action);
+        link.setRectangle(rectangle);
+        links.add(link);
+    }
+
+    public float getStringWidth(final String text, final PDFont font, final float fontSize) throws IOException {
+        return font.getStringWidth(text) / 1000 * fontSize;
+    }
+
+    public void flush() throws IOException {
+        if (page == null || isEmpty()) {
+            return;
+        }
+        try (PDPageContentStream contentStream = new PDPageContentStream(document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
+            for (final Map.Entry<PDFormXObject, List<PDRectangle>> form : formPlacements.entrySet()) {
+                for (final PDRectangle rectangle : form.getValue()) {
+                    contentStream.saveGraphicsState();
+                    contentStream.transform(Matrix.getTranslateInstance(rectangle.getLowerLeftX(), rectangle.getLowerLeftY()));
+                    contentStream.drawForm(form.getKey());
+                    contentStream.restoreGraphicsState();
+                }
+            }
+            for (final Map.Entry<Color, List<PDRectangle>> fill : fillsByColor.entrySet()) {
+                contentStream.setNonStrokingColor(fill.getKey());
+                for (final PDRectangle rectangle : fill.getValue()) {
+                    contentStream.addRect(rectangle.getLowerLeftX(), rectangle.getLowerLeftY(), rectangle.getWidth(), rectangle.getHeight());
+                }
+                contentStream.fill();
+            }
+            for (final Map.Entry<PDImageXObject, List<PDRectangle>> image : imagePlacements.entrySet()) {
+                for (final PDRectangle rectangle : image.getValue()) {
+                    contentStream.drawImage(image.getKey(), rectangle.getLowerLeftX(), rectangle.getLowerLeftY(), rectangle.getWidth(), rectangle.getHeight());
+                }
+            }
+            if (!textRunsByStyle.isEmpty()) {
+                writeTextRuns(contentStream);
+            }
+        }
+        page.getAnnotations().addAll(links);
+        clear();
+    }
+
+    private void writeTextRuns(final PDPageContentStream contentStream) throws IOException {
+        PDFont currentFont = null;
+        float currentFontSize = 0;
+        Color currentColor = null;
+        contentStream.beginText();
+        for (final Map.Entry<TextStyle, List<TextRun>> styledRuns : textRunsByStyle.entrySet()) {
+            final TextStyle style = styledRuns.getKey();
+            if (style.font != currentFont || style.fontSize != currentFontSize) {
+                contentStream.setFont(style.font, style.fontSize);
+                currentFont = style.font;
+                currentFontSize = style.fontSize;
+            }
+            if (!style.color.equals(currentColor)) {
+                contentStream.setNonStrokingColor(style.color);
+                currentColor = style.color;
+            }
+            for (final TextRun run : styledRuns.getValue()) {
+                contentStream.setTextMatrix(Matrix.getTranslateInstance(run.x, run.y));
+                contentStream.showText(run.text);
+            }
+        }
+        contentStream.endText();
+    }
+
+    private boolean isEmpty() {
+        return formPlacements.isEmpty() && fillsByColor.isEmpty() && imagePlacements.isEmpty() && textRunsByStyle.isEmpty() && links.isEmpty();
+    }
+
+    private void clear() {
+        formPlacements.clear();
+        fillsByColor.clear();
+        imagePlacements.clear();
+        textRunsByStyle.clear();
+        links.clear();
+    }
+
+    private PDImageXObject getImage(final String resourceImageName) throws IOException {
+        PDImageXObject image = imagesByResource.get(resourceImageName);
+        if (image == null) {
+            image = PdfImageCache.createImage(document, resourceImageName);
+            imagesByResource.put(resourceImageName, image);
+        }
+        return image;
+    }
+
+    private String toPrintableText(final String text, final PDFont font) throws IOException {
+        try {
+            font.encode(text);
+            return text;
+        } catch (final IllegalArgumentException e) {
+            // the standard fonts only cover WinAnsi, anything else is shown as '?'
+            final StringBuilder printableText = new StringBuilder(text.length());
+            for (int offset = 0; offset < text.length();) {
+                final int codePoint = text.codePointAt(offset);
+                final String character = new String(Character.toChars(codePoint));
+                try {
+                    font.encode(character);
+                    printableText.append(character);
+                } catch (final IllegalArgumentException unsupported) {
+                    printableText.append('?');
+                }
+                offset += Character.charCount(codePoint);
+            }
+            return printableText.toString();
+        }
+    }
+
+    private static class TextStyle {
+        private final PDFont font;
+        private final float fontSize;
+        private final Color color;
+
+        public TextStyle(final PDFont font, final float fontSize, final Color color) {
+            this.font = font;
+            this.fontSize = fontSize;
+            this.color = color;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TextStyle)) {
+                return false;
+            }
+            final TextStyle other = (TextStyle) obj;
+            return font == other.font && fontSize == other.fontSize && color.equals(other.color);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(font), fontSize, color);
+        }
+    }
+
+    private static class TextRun {
+        private final float x;
+        private final float y;
+        private final String text;
+
+        public TextRun(final float x, final float y, final String text) {
+            this.x = x;
+            this.y = y;
+            this.text = text;
+        }
+    }
+
+}
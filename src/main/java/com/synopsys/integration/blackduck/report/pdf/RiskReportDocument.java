@@ -0,0 +1,88 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+/**
+ * The {@link com.synopsys.integration.pdf.PDFBoxManager} saves the document when it is closed, so the compression profile is applied here, every save path ends in
+ * {@link #save(OutputStream)}. When a target stream is set, saving to the manager's file writes to that stream instead and leaves it open. The manager also
+ * saves when the report fails or is cancelled, so saving to the manager's file is skipped until the report content is marked complete.
+ */
+class RiskReportDocument extends PDDocument {
+    private final PdfCompressionProfile compressionProfile;
+
+    private OutputStream target;
+
+    private boolean complete;
+
+    public RiskReportDocument(final PdfCompressionProfile compressionProfile) {
+        super();
+        this.compressionProfile = compressionProfile;
+    }
+
+    public void setTarget(final OutputStream target) {
+        this.target = target;
+    }
+
+    public void setComplete() {
+        complete = true;
+    }
+
+    @Override
+    public void save(final File file) throws IOException {
+        if (!complete) {
+            return;
+        }
+        if (target == null) {
+            super.save(file);
+        } else {
+            save(new BufferedOutputStream(new FilterOutputStream(target) {
+                @Override
+                public void write(final byte[] b, final int off, final int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    // the target stays open, and on Java 8 the document flushes its stream again after closing it
+                    flush();
+                }
+            }));
+        }
+    }
+
+    @Override
+    public void save(final OutputStream output) throws IOException {
+        new PdfDocumentCompactor(compressionProfile).compact(this);
+        super.save(output);
+    }
+
+}
@@ -0,0 +1,138 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.pdfbox.pdmodel.font.FontMappers;
+
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.blackduck.report.api.ReportData;
+import com.synopsys.integration.blackduck.report.exception.RiskReportException;
+import com.synopsys.integration.log.LogLevel;
+import com.synopsys.integration.log.PrintStreamIntLogger;
+
+/**
+ * Startup optimizations for short lived JVMs that write a single report.
+ * <p>
+ * On a cold JVM most of the first report goes to initializing the PDFBox standard 14 fonts, which parses the metrics of all 14 fonts at once no matter
+ * which font is mapped, and to loading the PDFBox and report classes. Fast startup only removes the system font scan, so the first report still takes
+ * about a second. {@link #preloadInBackground()} moves the rest onto a separate thread, where it overlaps the time the caller spends getting the report
+ * data.
+ */
+public class RiskReportPdfStartup {
+    private static boolean fastStartupEnabled = false;
+
+    private RiskReportPdfStartup() {
+    }
+
+    /**
+     * Limits PDFBox to the standard 14 fonts and the font bundled with PDFBox, so no system font cache is scanned or written. This must be called before
+     * anything touches {@link com.synopsys.integration.pdf.PDFBoxManager#DEFAULT_FONT}, the standard fonts are mapped when their class is initialized.
+     */
+    public static synchronized void enableFastStartup() {
+        if (!fastStartupEnabled) {
+            FontMappers.set(new BundledFontMapper());
+            fastStartupEnabled = true;
+        }
+    }
+
+    public static synchronized boolean isFastStartupEnabled() {
+        return fastStartupEnabled;
+    }
+
+    /**
+     * Enables fast startup and writes a small report on a daemon thread, which initializes the standard fonts, loads the classes and caches the images
+     * and page templates the next report needs. A report started before the preload is done still works, it waits for any class the preload is still
+     * initializing.
+     */
+    public static void preloadInBackground() {
+        enableFastStartup();
+        final Thread preloadThread = new Thread(RiskReportPdfStartup::preload, "riskreport-pdf-preload");
+        preloadThread.setDaemon(true);
+        preloadThread.start();
+    }
+
+    static void preload() {
+        try {
+            new RiskReportPdfWriter(new PrintStreamIntLogger(System.out, LogLevel.OFF)).createPDFReport(NullOutputStream.NULL_OUTPUT_STREAM, createSampleReportData());
+        } catch (final RiskReportException | RuntimeException e) {
+            // the preload only saves time, a real problem shows up again in the report that is actually written
+        }
+    }
+
+    /**
+     * Writes a small report with fast startup enabled. The build runs this to record the classes a report loads, see the riskReportClassList task.
+     */
+    public static void main(final String[] args) throws IOException, RiskReportException {
+        enableFastStartup();
+        final File outputDirectory = Files.createTempDirectory("riskreport").toFile();
+        try {
+            final RiskReportPdfWriter writer = new RiskReportPdfWriter(new PrintStreamIntLogger(System.out, LogLevel.INFO));
+            writer.createPDFReportFile(outputDirectory, createSampleReportData());
+        } finally {
+            FileUtils.deleteQuietly(outputDirectory);
+        }
+    }
+
+    private static ReportData createSampleReportData() {
+        final ReportData reportData = new ReportData();
+        reportData.setProjectName("Sample Project");
+        reportData.setProjectURL("https://localhost/projects/sample");
+        reportData.setProjectVersion("1.0");
+        reportData.setProjectVersionURL("https://localhost/versions/sample");
+        reportData.setPhase("DEVELOPMENT");
+        reportData.setDistribution("EXTERNAL");
+
+        final List<BomComponent> components = new ArrayList<>();
+        for (int riskLevel = 0; riskLevel < 4; riskLevel++) {
+            final BomComponent component = new BomComponent();
+            component.setComponentName("Sample Component " + riskLevel);
+            component.setComponentURL("https://localhost/components/" + riskLevel);
+            component.setComponentVersion("1." + riskLevel);
+            component.setComponentVersionURL("https://localhost/components/" + riskLevel + "/versions/1." + riskLevel);
+            component.setLicense("Apache License 2.0");
+            component.setPolicyStatus(riskLevel == 0 ? "IN_VIOLATION" : "NOT_IN_VIOLATION");
+            component.setSecurityRiskHighCount(riskLevel == 0 ? 1 : 0);
+            component.setSecurityRiskMediumCount(riskLevel == 1 ? 1 : 0);
+            component.setSecurityRiskLowCount(riskLevel == 2 ? 1 : 0);
+            component.setLicenseRiskHighCount(riskLevel == 0 ? 1 : 0);
+            component.setLicenseRiskMediumCount(riskLevel == 1 ? 1 : 0);
+            component.setLicenseRiskLowCount(riskLevel == 2 ? 1 : 0);
+            component.setOperationalRiskHighCount(riskLevel == 0 ? 1 : 0);
+            component.setOperationalRiskMediumCount(riskLevel == 1 ? 1 : 0);
+            component.setOperationalRiskLowCount(riskLevel == 2 ? 1 : 0);
+            components.add(component);
+        }
+        reportData.setComponents(components);
+        return reportData;
+    }
+
+}
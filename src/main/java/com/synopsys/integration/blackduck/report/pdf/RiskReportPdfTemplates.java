@@ -0,0 +1,165 @@
+/**
+ * hub-common-reporting
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdfwriter.COSWriter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+
+import com.synopsys.integration.pdf.PDFBoxManager;
+
+/**
+ * The page header band and the component table header row are identical in every report. Their drawing operations are built once per JVM and page
+ * width, each document wraps them in a Form XObject once and stamps that form by reference on every page that shows it.
+ */
+class RiskReportPdfTemplates {
+    public static final float HEADER_HEIGHT = 100F;
+
+    public static final float TABLE_HEADER_HEIGHT = 18F;
+
+    public static final String LOGO_IMAGE = "/riskreport/web/images/Hub_BD_logo.png";
+
+    private static final COSName FONT_RESOURCE_NAME = COSName.getPDFName("F1");
+
+    private static final COSName LOGO_RESOURCE_NAME = COSName.getPDFName("Im1");
+
+    private static final Map<Float, byte[]> HEADER_CONTENT = new ConcurrentHashMap<>();
+
+    private static final Map<Float, byte[]> TABLE_HEADER_CONTENT = new ConcurrentHashMap<>();
+
+    private final PDDocument document;
+
+    private final Map<Float, PDFormXObject> headerForms = new HashMap<>();
+
+    private final Map<Float, PDFormXObject> tableHeaderForms = new HashMap<>();
+
+    public RiskReportPdfTemplates(final PDDocument document) {
+        this.document = document;
+    }
+
+    public PDFormXObject getHeaderForm(final float pageWidth) throws IOException {
+        PDFormXObject form = headerForms.get(pageWidth);
+        if (form == null) {
+            form = createHeaderForm(pageWidth);
+            headerForms.put(pageWidth, form);
+        }
+        return form;
+    }
+
+    public PDFormXObject getTableHeaderForm(final float tableWidth) throws IOException {
+        PDFormXObject form = tableHeaderForms.get(tableWidth);
+        if (form == null) {
+            form = createTableHeaderForm(tableWidth);
+            tableHeaderForms.put(tableWidth, form);
+        }
+        return form;
+    }
+
+    private PDFormXObject createHeaderForm(final float pageWidth) throws IOException {
+        byte[] content = HEADER_CONTENT.get(pageWidth);
+        if (content == null) {
+            content = buildHeaderContent(pageWidth);
+            HEADER_CONTENT.put(pageWidth, content);
+        }
+        final PDResources resources = new PDResources();
+        resources.put(FONT_RESOURCE_NAME, PDFBoxManager.DEFAULT_FONT_BOLD);
+        resources.put(LOGO_RESOURCE_NAME, PdfImageCache.createImage(document, LOGO_IMAGE));
+        return createForm(content, new PDRectangle(pageWidth, HEADER_HEIGHT), resources);
+    }
+
+    private PDFormXObject createTableHeaderForm(final float tableWidth) throws IOException {
+        byte[] content = TABLE_HEADER_CONTENT.get(tableWidth);
+        if (content == null) {
+            content = buildTableHeaderContent(tableWidth);
+            TABLE_HEADER_CONTENT.put(tableWidth, content);
+        }
+        final PDResources resources = new PDResources();
+        resources.put(FONT_RESOURCE_NAME, PDFBoxManager.DEFAULT_FONT_BOLD);
+        return createForm(content, new PDRectangle(tableWidth, TABLE_HEADER_HEIGHT), resources);
+    }
+
+    private PDFormXObject createForm(final byte[] content, final PDRectangle boundingBox, final PDResources resources) throws IOException {
+        final PDFormXObject form = new PDFormXObject(document);
+        form.setBBox(boundingBox);
+        form.setResources(resources);
+        try (OutputStream formContent = form.getContentStream().createOutputStream(COSName.FLATE_DECODE)) {
+            formContent.write(content);
+        }
+        return form;
+    }
+
+    private byte[] buildHeaderContent(final float pageWidth) throws IOException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        writeOperators(content, "0 0 0 rg 0 0 %s %s re f%n", pageWidth, HEADER_HEIGHT);
+        writeOperators(content, "q 203 0 0 45 %s 27.5 cm /%s Do Q%n", pageWidth - 220, LOGO_RESOURCE_NAME.getName());
+        writeOperators(content, "BT /%s 20 Tf 1 1 1 rg 5 40 Td ", FONT_RESOURCE_NAME.getName());
+        writeText(content, PDFBoxManager.DEFAULT_FONT_BOLD, "Black Duck Risk Report");
+        writeOperators(content, " Tj ET%n");
+        return content.toByteArray();
+    }
+
+    private byte[] buildTableHeaderContent(final float tableWidth) throws IOException {
+        // the column positions are relative to the table, which starts 10 points into the page
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        writeOperators(content, "0.86667 0.86667 0.86667 rg 0 0 %s %s re f%n", tableWidth, TABLE_HEADER_HEIGHT);
+        writeOperators(content, "BT /%s 12 Tf 0 0 0 rg%n", FONT_RESOURCE_NAME.getName());
+        writeColumnTitle(content, 40, "Component");
+        writeColumnTitle(content, 180, "Version");
+        writeColumnTitle(content, 300, "License");
+        writeColumnTitle(content, 420, "H");
+        writeColumnTitle(content, 460, "M");
+        writeColumnTitle(content, 500, "L");
+        writeColumnTitle(content, 540, "Opt R");
+        writeOperators(content, "ET%n");
+        return content.toByteArray();
+    }
+
+    private void writeColumnTitle(final ByteArrayOutputStream content, final float x, final String title) throws IOException {
+        writeOperators(content, "1 0 0 1 %s 5 Tm ", x);
+        writeText(content, PDFBoxManager.DEFAULT_FONT_BOLD, title);
+        writeOperators(content, " Tj%n");
+    }
+
+    private void writeOperators(final ByteArrayOutputStream content, final String operators, final Object... arguments) throws IOException {
+        content.write(String.format(Locale.US, operators, arguments).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void writeText(final ByteArrayOutputStream content, final PDFont font, final String text) throws IOException {
+        COSWriter.writeString(font.encode(text), content);
+    }
+
+}
@@ -28,16 +28,33 @@ import static java.awt.Color.decode;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
-import java.net.URISyntaxException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 
+import com.synopsys.integration.blackduck.report.ComponentSorter;
+import com.synopsys.integration.blackduck.report.RiskReportFutures;
+import com.synopsys.integration.blackduck.report.SortedComponents;
 import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.blackduck.report.api.ComponentRiskScore;
+import com.synopsys.integration.blackduck.report.api.LicenseCount;
+import com.synopsys.integration.blackduck.report.api.PolicyRuleViolations;
+import com.synopsys.integration.blackduck.report.api.PortfolioComponent;
+import com.synopsys.integration.blackduck.report.api.PortfolioReport;
 import com.synopsys.integration.blackduck.report.api.ReportData;
+import com.synopsys.integration.blackduck.report.api.RiskLevel;
+import com.synopsys.integration.blackduck.report.api.RiskiestComponents;
+import com.synopsys.integration.blackduck.report.api.RiskSummary;
 import com.synopsys.integration.blackduck.report.exception.RiskReportException;
 import com.synopsys.integration.log.IntLogger;
 import com.synopsys.integration.pdf.PDFBoxManager;
@@ -45,6 +62,8 @@ import com.synopsys.integration.pdf.StringManager;
 import com.synopsys.integration.util.IntegrationEscapeUtil;
 
 public class RiskReportPdfWriter {
+    public static final String PORTFOLIO_REPORT_FILE_NAME = "Portfolio_BlackDuck_RiskReport.pdf";
+
     private final IntLogger logger;
 
     private final String HIGH_RISK = "High Risk";
@@ -52,48 +71,207 @@ public class RiskReportPdfWriter {
     private final String LOW_RISK = "Low Risk";
     private final String NO_RISK = "No Risk";
 
+    private static final Color HIGH_RISK_COLOR = decode("#b52b24");
+    private static final Color MED_RISK_COLOR = decode("#eca4a0");
+    private static final Color LOW_RISK_COLOR = new Color(153, 153, 153);
+    private static final Color ODD_ROW_COLOR = new Color(221, 221, 221);
+
+    // PDFBoxManager continues on a new page when something is drawn below this y
+    private static final float PAGE_BOTTOM_MARGIN = 10F;
+
     private PDFBoxManager pdfManager;
 
+    private PdfPageBatch pageBatch;
+
+    private RiskReportPdfTemplates templates;
+
+    private PdfCompressionProfile compressionProfile = PdfCompressionProfile.DEFAULT;
+
+    private PdfExecutiveSummary executiveSummary;
+
+    private ComponentSorter componentSorter;
+
+    private BooleanSupplier cancelled = RiskReportFutures.NEVER_CANCELLED;
+
     public RiskReportPdfWriter(final IntLogger logger) {
         this.logger = logger;
     }
 
+    private RiskReportPdfWriter(final RiskReportPdfWriter settings, final BooleanSupplier cancelled) {
+        this(settings.logger);
+        this.compressionProfile = settings.compressionProfile;
+        this.executiveSummary = settings.executiveSummary;
+        this.componentSorter = settings.componentSorter;
+        this.cancelled = cancelled;
+    }
+
+    public void setCompressionProfile(final PdfCompressionProfile compressionProfile) {
+        this.compressionProfile = compressionProfile;
+    }
+
+    /**
+     * @param executiveSummary
+     *            the components to show in the component table, or null to show every component
+     */
+    public void setExecutiveSummary(final PdfExecutiveSummary executiveSummary) {
+        this.executiveSummary = executiveSummary;
+    }
+
+    /**
+     * @param componentSorter
+     *            orders the component table, or null to keep the order of {@link ReportData#getComponents()}. An executive summary is always ordered by
+     *            its risk score.
+     */
+    public void setComponentSorter(final ComponentSorter componentSorter) {
+        this.componentSorter = componentSorter;
+    }
+
+    /**
+     * Writes the report on the executor with a copy of this writer's settings. Cancelling the future stops the report before the next component row and
+     * no file is left behind. The writer only reads the report data, so the html and pdf reports for the same {@link ReportData} can be
+     * written at the same time.
+     */
+    public CompletableFuture<File> createPDFReportFileAsync(final File outputDirectory, final ReportData report, final Executor executor) {
+        return RiskReportFutures.supplyCancellable(executor, cancelled -> new RiskReportPdfWriter(this, cancelled).createPDFReportFile(outputDirectory, report));
+    }
+
     public File createPDFReportFile(final File outputDirectory, final ReportData report) throws RiskReportException {
-        final IntegrationEscapeUtil escapeUtil = new IntegrationEscapeUtil();
-        final String escapedProjectName = escapeUtil.escapeForUri(report.getProjectName());
-        final String escapedProjectVersionName = escapeUtil.escapeForUri(report.getProjectVersion());
-        final File pdfFile = new File(outputDirectory, escapedProjectName + "_" + escapedProjectVersionName + "_BlackDuck_RiskReport.pdf");
+        final File pdfFile = new File(outputDirectory, getReportFileName(report));
+        if (pdfFile.exists()) {
+            pdfFile.delete();
+        }
+        try {
+            writeReport(pdfFile, new RiskReportDocument(compressionProfile), (pageWidth, startingHeight) -> writeReportContent(pageWidth, startingHeight, report));
+            return pdfFile;
+        } catch (final RiskReportException e) {
+            FileUtils.deleteQuietly(pdfFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the report to the stream without touching the file system. The stream is not closed, and nothing is written to it when the report fails.
+     */
+    public void createPDFReport(final OutputStream outputStream, final ReportData report) throws RiskReportException {
+        final RiskReportDocument document = new RiskReportDocument(compressionProfile);
+        document.setTarget(outputStream);
+        // the manager needs a file to save to, the document sends that save to the stream so the file is never created
+        writeReport(new File(getReportFileName(report)), document, (pageWidth, startingHeight) -> writeReportContent(pageWidth, startingHeight, report));
+    }
+
+    /**
+     * Writes the report to the channel without touching the file system. The channel is not closed, and nothing is written to it when the report fails.
+     */
+    public void createPDFReport(final WritableByteChannel channel, final ReportData report) throws RiskReportException {
+        createPDFReport(Channels.newOutputStream(channel), report);
+    }
+
+    /**
+     * Writes a portfolio dashboard, the summed summary tables followed by the riskiest components across all project versions.
+     */
+    public File createPortfolioPDFReportFile(final File outputDirectory, final PortfolioReport portfolioReport) throws RiskReportException {
+        final File pdfFile = new File(outputDirectory, PORTFOLIO_REPORT_FILE_NAME);
         if (pdfFile.exists()) {
             pdfFile.delete();
         }
-        final PDDocument document = new PDDocument();
+        writeReport(pdfFile, new RiskReportDocument(compressionProfile), (pageWidth, startingHeight) -> writePortfolioContent(pageWidth, startingHeight, portfolioReport));
+        return pdfFile;
+    }
+
+    /**
+     * Writes a portfolio dashboard to the stream without touching the file system. The stream is not closed.
+     */
+    public void createPortfolioPDFReport(final OutputStream outputStream, final PortfolioReport portfolioReport) throws RiskReportException {
+        final RiskReportDocument document = new RiskReportDocument(compressionProfile);
+        document.setTarget(outputStream);
+        writeReport(new File(PORTFOLIO_REPORT_FILE_NAME), document, (pageWidth, startingHeight) -> writePortfolioContent(pageWidth, startingHeight, portfolioReport));
+    }
+
+    public String getReportFileName(final ReportData report) {
+        final IntegrationEscapeUtil escapeUtil = new IntegrationEscapeUtil();
+        final String escapedProjectName = escapeUtil.escapeForUri(report.getProjectName());
+        final String escapedProjectVersionName = escapeUtil.escapeForUri(report.getProjectVersion());
+        return escapedProjectName + "_" + escapedProjectVersionName + "_BlackDuck_RiskReport.pdf";
+    }
+
+    private void writeReport(final File pdfFile, final RiskReportDocument document, final ReportContent content) throws RiskReportException {
         document.getDocumentInformation().setAuthor("Black Duck Software");
         document.getDocumentInformation().setCreator("Integrations");
         document.getDocumentInformation().setSubject("Hub Risk Report");
 
         try (PDFBoxManager pdfManager = new PDFBoxManager(pdfFile, document)) {
             this.pdfManager = pdfManager;
+            pageBatch = new PdfPageBatch(document);
+            templates = new RiskReportPdfTemplates(document);
             final PDRectangle pageBox = pdfManager.currentPage.getMediaBox();
             final float pageWidth = pageBox.getWidth();
             final float pageHeight = pageBox.getHeight();
 
             final PDRectangle headerRectangle = writeHeader(pageWidth, pageHeight);
-            final PDRectangle bottomOfProjectInfoRectangle = writeProjectInformation(pageWidth, headerRectangle.getLowerLeftY(), report);
-            final PDRectangle bottomOfSummaryTableRectangle = writeSummaryTables(pageWidth, bottomOfProjectInfoRectangle.getLowerLeftY(), report);
-            final PDRectangle bottomOfComponentTableRectangle = writeComponentTable(pageWidth, bottomOfSummaryTableRectangle.getLowerLeftY(), report);
-
-            return pdfFile;
-        } catch (final IOException | URISyntaxException e) {
+            content.write(pageWidth, headerRectangle.getLowerLeftY());
+            document.setComplete();
+        } catch (final IOException | UncheckedIOException e) {
             final String errorString = "Couldn't create the report: ";
             logger.trace(errorString + e.getMessage(), e);
             throw new RiskReportException(errorString + e.getMessage(), e);
         }
     }
 
-    private PDRectangle writeHeader(final float pageWidth, final float startingHeight) throws IOException, URISyntaxException {
-        final PDRectangle rectangle = pdfManager.drawRectangle(0, startingHeight - 100, pageWidth, 100, Color.BLACK);
-        pdfManager.drawImage(pageWidth - 220, rectangle.getLowerLeftY() + 27.5F, 203, 45, "/riskreport/web/images/Hub_BD_logo.png");
-        pdfManager.writeText(5, rectangle.getLowerLeftY() + 40F, "Black Duck Risk Report", PDFBoxManager.DEFAULT_FONT_BOLD, 20, Color.WHITE);
+    private void writeReportContent(final float pageWidth, final float startingHeight, final ReportData report) throws IOException, RiskReportException {
+        final PDRectangle bottomOfProjectInfoRectangle = writeProjectInformation(pageWidth, startingHeight, report);
+        PDRectangle bottomOfSummaryTableRectangle = writeSummaryTables(pageWidth, bottomOfProjectInfoRectangle.getLowerLeftY(), report);
+        bottomOfSummaryTableRectangle = writePolicyViolations(pageWidth, bottomOfSummaryTableRectangle, report);
+        bottomOfSummaryTableRectangle = writeLicenseCounts(bottomOfSummaryTableRectangle, report);
+        final String title = "BOM Entries " + report.getTotalComponents();
+        if (executiveSummary != null) {
+            writeExecutiveComponentTable(pageWidth, bottomOfSummaryTableRectangle.getLowerLeftY(), report);
+        } else if (componentSorter != null) {
+            try (SortedComponents sortedComponents = componentSorter.sort(report.getComponents())) {
+                final PDRectangle bottomOfComponentTableRectangle = writeComponentTable(pageWidth, bottomOfSummaryTableRectangle.getLowerLeftY(), title, sortedComponents);
+            }
+        } else {
+            final PDRectangle bottomOfComponentTableRectangle = writeComponentTable(pageWidth, bottomOfSummaryTableRectangle.getLowerLeftY(), title, report.getComponents());
+        }
+    }
+
+    private void writeExecutiveComponentTable(final float pageWidth, final float startingHeight, final ReportData report) throws IOException, RiskReportException {
+        final ComponentRiskScore riskScore = executiveSummary.getRiskScore();
+        final RiskiestComponents<BomComponent> riskiestComponents = new RiskiestComponents<>(executiveSummary.getComponentCount());
+        int componentCount = 0;
+        for (final BomComponent component : report.getComponents()) {
+            if (null != component) {
+                riskiestComponents.offer(component, riskScore.score(component));
+                componentCount++;
+            }
+        }
+        final List<BomComponent> components = riskiestComponents.toList();
+        final PDRectangle bottomOfComponentTableRectangle = writeComponentTable(pageWidth, startingHeight, "Riskiest " + components.size() + " of " + componentCount + " BOM Entries", components);
+
+        final int remainingCount = componentCount - components.size();
+        if (remainingCount > 0) {
+            final String moreString = "+" + remainingCount + " more in the full report";
+            if (StringUtils.isNotBlank(executiveSummary.getFullReportLink())) {
+                pdfManager.writeWrappedLink(30, bottomOfComponentTableRectangle.getLowerLeftY() - 20, 300, moreString, executiveSummary.getFullReportLink(), PDFBoxManager.DEFAULT_FONT, PDFBoxManager.DEFAULT_FONT_SIZE);
+            } else {
+                pdfManager.writeText(30, bottomOfComponentTableRectangle.getLowerLeftY() - 20, moreString);
+            }
+        }
+        logger.trace("Finished writing the executive summary footer.");
+    }
+
+    private void writePortfolioContent(final float pageWidth, final float startingHeight, final PortfolioReport portfolioReport) throws IOException, RiskReportException {
+        PDRectangle rectangle = pdfManager.writeText(5, startingHeight - 18, "Portfolio", PDFBoxManager.DEFAULT_FONT, 18, Color.BLACK);
+        final String portfolioAttributesString = "Project Versions:  " + portfolioReport.getProjectCount() + "    |    Components:  " + portfolioReport.getTotalComponents();
+        rectangle = pdfManager.writeWrappedText(5, rectangle.getLowerLeftY() - 18, 300, portfolioAttributesString);
+        logger.trace("Finished writing the portfolio information.");
+        final PDRectangle bottomOfSummaryTableRectangle = writeSummaryTables(pageWidth, rectangle.getLowerLeftY(), portfolioReport);
+        final List<PortfolioComponent> components = portfolioReport.getComponents();
+        writeComponentTable(pageWidth, bottomOfSummaryTableRectangle.getLowerLeftY(), "Riskiest " + components.size() + " of " + portfolioReport.getTotalComponents() + " Components", components);
+    }
+
+    private PDRectangle writeHeader(final float pageWidth, final float startingHeight) throws IOException {
+        pageBatch.switchToPage(pdfManager.currentPage);
+        final PDRectangle rectangle = pageBatch.drawForm(templates.getHeaderForm(pageWidth), 0, startingHeight - RiskReportPdfTemplates.HEADER_HEIGHT);
         logger.trace("Finished writing the pdf header.");
         return rectangle;
     }
@@ -111,7 +289,7 @@ public class RiskReportPdfWriter {
         return rectangle;
     }
 
-    private PDRectangle writeSummaryTables(final float pageWidth, final float startingHeight, final ReportData reportData) throws IOException {
+    private PDRectangle writeSummaryTables(final float pageWidth, final float startingHeight, final RiskSummary reportData) throws IOException {
 
         final float center = pageWidth / 2;
 
@@ -126,13 +304,76 @@ public class RiskReportPdfWriter {
         return rectangle;
     }
 
+    private PDRectangle writePolicyViolations(final float pageWidth, final PDRectangle bottomOfSummaryTableRectangle, final ReportData reportData) throws IOException {
+        final List<PolicyRuleViolations> policyRuleViolations = reportData.getPolicyRuleViolations();
+        if (policyRuleViolations == null || policyRuleViolations.isEmpty()) {
+            return bottomOfSummaryTableRectangle;
+        }
+        PDRectangle rectangle = pdfManager.writeText(30, bottomOfSummaryTableRectangle.getLowerLeftY() - 24, "Violations by Policy Rule", PDFBoxManager.DEFAULT_FONT_BOLD, 12, Color.BLACK);
+        final List<BomComponent> components = reportData.getComponents();
+        for (final PolicyRuleViolations violations : policyRuleViolations) {
+            final int[] componentIndexes = violations.getComponentIndexes();
+            rectangle = pdfManager.writeText(30, rectangle.getLowerLeftY() - 16, violations.getRule().getName() + " (" + componentIndexes.length + ")", PDFBoxManager.DEFAULT_FONT_BOLD, PDFBoxManager.DEFAULT_FONT_SIZE, HIGH_RISK_COLOR);
+            // the index lists the violating components, so only they are visited
+            final StringBuilder componentNames = new StringBuilder();
+            for (final int componentIndex : componentIndexes) {
+                final BomComponent component = components.get(componentIndex);
+                final StringBuilder componentName = new StringBuilder();
+                if (StringUtils.isNotBlank(component.getComponentName())) {
+                    componentName.append(component.getComponentName());
+                }
+                if (StringUtils.isNotBlank(component.getComponentVersion())) {
+                    componentName.append(componentName.length() > 0 ? " " : "").append(component.getComponentVersion());
+                }
+                if (componentName.length() > 0) {
+                    componentNames.append(componentNames.length() > 0 ? ", " : "").append(componentName);
+                }
+            }
+            rectangle = pdfManager.writeWrappedText(40, rectangle.getLowerLeftY() - 14, pageWidth - 80, componentNames.toString());
+        }
+        logger.trace("Finished writing the policy violations.");
+        return rectangle;
+    }
+
+    private PDRectangle writeLicenseCounts(final PDRectangle bottomOfSummaryTableRectangle, final ReportData reportData) throws IOException {
+        final List<LicenseCount> licenseCounts = reportData.getLicenseCounts();
+        if (licenseCounts == null || licenseCounts.isEmpty()) {
+            return bottomOfSummaryTableRectangle;
+        }
+        PDRectangle rectangle = pdfManager.writeText(30, bottomOfSummaryTableRectangle.getLowerLeftY() - 24, "Components by License", PDFBoxManager.DEFAULT_FONT_BOLD, 12, Color.BLACK);
+        final float headerY = rectangle.getLowerLeftY() - 16;
+        rectangle = pdfManager.writeText(30, headerY, "License", PDFBoxManager.DEFAULT_FONT_BOLD, PDFBoxManager.DEFAULT_FONT_SIZE, Color.BLACK);
+        pdfManager.writeTextCentered(310, rectangle.getLowerLeftY(), "Components", PDFBoxManager.DEFAULT_FONT_BOLD, PDFBoxManager.DEFAULT_FONT_SIZE, Color.BLACK);
+        pdfManager.writeTextCentered(470, rectangle.getLowerLeftY(), "H", PDFBoxManager.DEFAULT_FONT_BOLD, PDFBoxManager.DEFAULT_FONT_SIZE, Color.BLACK);
+        pdfManager.writeTextCentered(505, rectangle.getLowerLeftY(), "M", PDFBoxManager.DEFAULT_FONT_BOLD, PDFBoxManager.DEFAULT_FONT_SIZE, Color.BLACK);
+        pdfManager.writeTextCentered(540, rectangle.getLowerLeftY(), "L", PDFBoxManager.DEFAULT_FONT_BOLD, PDFBoxManager.DEFAULT_FONT_SIZE, Color.BLACK);
+        pdfManager.writeTextCentered(575, rectangle.getLowerLeftY(), "None", PDFBoxManager.DEFAULT_FONT_BOLD, PDFBoxManager.DEFAULT_FONT_SIZE, Color.BLACK);
+
+        final float totalCount = reportData.getTotalComponents();
+        for (final LicenseCount licenseCount : licenseCounts) {
+            final String license = StringUtils.isBlank(licenseCount.getLicense()) ? "Unknown License" : licenseCount.getLicense();
+            rectangle = pdfManager.writeText(30, rectangle.getLowerLeftY() - 14, StringUtils.abbreviate(license, 45));
+            final float rowY = rectangle.getLowerLeftY();
+            pdfManager.writeTextCentered(310, rowY, String.valueOf(licenseCount.getComponentCount()));
+            if (licenseCount.getComponentCount() > 0 && totalCount > 0) {
+                pdfManager.drawRectangle(330, rowY, (licenseCount.getComponentCount() / totalCount) * 110, 10, ODD_ROW_COLOR);
+            }
+            pdfManager.writeTextCentered(470, rowY, String.valueOf(licenseCount.getHighRiskCount()));
+            pdfManager.writeTextCentered(505, rowY, String.valueOf(licenseCount.getMediumRiskCount()));
+            pdfManager.writeTextCentered(540, rowY, String.valueOf(licenseCount.getLowRiskCount()));
+            pdfManager.writeTextCentered(575, rowY, String.valueOf(licenseCount.getNoRiskCount()));
+        }
+        logger.trace("Finished writing the license counts.");
+        return rectangle;
+    }
+
     private PDRectangle writeSummaryTable(final float centerX, final float y, final String title, final int highCount, final int mediumCount, final int lowCount, final int noneCount, final int totalCount) throws IOException {
         PDRectangle rectangle = pdfManager.writeTextCentered(centerX, y, title, PDFBoxManager.DEFAULT_FONT_BOLD, 14, Color.BLACK);
 
-        rectangle = writeSummaryTableRow(centerX, rectangle.getLowerLeftY() - 14, HIGH_RISK, highCount, totalCount, decode("#b52b24"));
-        rectangle = writeSummaryTableRow(centerX, rectangle.getLowerLeftY() - 14, MED_RISK, mediumCount, totalCount, decode("#eca4a0"));
-        rectangle = writeSummaryTableRow(centerX, rectangle.getLowerLeftY() - 14, LOW_RISK, lowCount, totalCount, new Color(153, 153, 153));
-        return writeSummaryTableRow(centerX, rectangle.getLowerLeftY() - 14, NO_RISK, noneCount, totalCount, new Color(221, 221, 221));
+        rectangle = writeSummaryTableRow(centerX, rectangle.getLowerLeftY() - 14, HIGH_RISK, highCount, totalCount, HIGH_RISK_COLOR);
+        rectangle = writeSummaryTableRow(centerX, rectangle.getLowerLeftY() - 14, MED_RISK, mediumCount, totalCount, MED_RISK_COLOR);
+        rectangle = writeSummaryTableRow(centerX, rectangle.getLowerLeftY() - 14, LOW_RISK, lowCount, totalCount, LOW_RISK_COLOR);
+        return writeSummaryTableRow(centerX, rectangle.getLowerLeftY() - 14, NO_RISK, noneCount, totalCount, ODD_ROW_COLOR);
     }
 
     private PDRectangle writeSummaryTableRow(final float centerX, final float rowY, final String rowTitle, final int count, final float totalCount, final Color barColor) throws IOException {
@@ -149,35 +390,45 @@ public class RiskReportPdfWriter {
         return rectangle;
     }
 
-    private PDRectangle writeComponentTable(final float pageWidth, final float startingHeight, final ReportData reportData) throws IOException, URISyntaxException {
+    private PDRectangle writeComponentTable(final float pageWidth, final float startingHeight, final String title, final Iterable<? extends BomComponent> components) throws IOException, RiskReportException {
         // new Color(221, 221, 221)
         final float height = startingHeight - 20;
 
-        final PDRectangle rectangle = pdfManager.writeText(30, height, "BOM Entries " + reportData.getTotalComponents());
-
-        // header row
-        PDRectangle rowRectangle = pdfManager.drawRectangle(10, rectangle.getLowerLeftY() - 22, pageWidth - 20, 18, new Color(221, 221, 221));
-        final float rowY = rowRectangle.getLowerLeftY() + 5;
-        pdfManager.writeText(50, rowY, "Component", PDFBoxManager.DEFAULT_FONT_BOLD, 12, PDFBoxManager.DEFAULT_COLOR);
-        pdfManager.writeText(190, rowY, "Version", PDFBoxManager.DEFAULT_FONT_BOLD, 12, PDFBoxManager.DEFAULT_COLOR);
-        pdfManager.writeText(310, rowY, "License", PDFBoxManager.DEFAULT_FONT_BOLD, 12, PDFBoxManager.DEFAULT_COLOR);
-        pdfManager.writeText(430, rowY, "H", PDFBoxManager.DEFAULT_FONT_BOLD, 12, PDFBoxManager.DEFAULT_COLOR);
-        pdfManager.writeText(470, rowY, "M", PDFBoxManager.DEFAULT_FONT_BOLD, 12, PDFBoxManager.DEFAULT_COLOR);
-        pdfManager.writeText(510, rowY, "L", PDFBoxManager.DEFAULT_FONT_BOLD, 12, PDFBoxManager.DEFAULT_COLOR);
-        pdfManager.writeText(550, rowY, "Opt R", PDFBoxManager.DEFAULT_FONT_BOLD, 12, PDFBoxManager.DEFAULT_COLOR);
+        final PDRectangle rectangle = pdfManager.writeText(30, height, title);
 
+        // the header row is drawn together with the first row, so the two always start on the same page
+        PDRectangle rowRectangle = new PDRectangle(10, rectangle.getLowerLeftY() - 4, pageWidth - 20, 0);
+        boolean isFirstRow = true;
         boolean isOdd = false;
-        for (final BomComponent component : reportData.getComponents()) {
+        for (final BomComponent component : components) {
             if (null != component) {
-                rowRectangle = writeComponentRow(pageWidth, rowRectangle.getLowerLeftY(), component, isOdd);
+                RiskReportFutures.checkCancelled(cancelled);
+                rowRectangle = writeComponentRow(pageWidth, rowRectangle.getLowerLeftY(), component, isOdd, isFirstRow);
+                isFirstRow = false;
                 isOdd = !isOdd;
             }
         }
+        if (isFirstRow) {
+            rowRectangle = writeTableHeader(pageWidth, rowRectangle.getLowerLeftY(), 0);
+        }
+        pageBatch.flush();
         logger.trace("Finished writing the component table.");
         return rowRectangle;
     }
 
-    private PDRectangle writeComponentRow(final float pageWidth, final float y, final BomComponent component, final boolean isOdd) throws IOException, URISyntaxException {
+    /**
+     * Stamps the table header above a row of the given height. The header and the row are reserved through the manager in one piece, so both move to a
+     * new page when they do not fit above the bottom margin.
+     */
+    private PDRectangle writeTableHeader(final float pageWidth, final float y, final float rowHeight) throws IOException {
+        final float headerHeight = RiskReportPdfTemplates.TABLE_HEADER_HEIGHT;
+        // white is the page background, the header form and the row draw their own backgrounds on top of it
+        final PDRectangle reservedRectangle = pdfManager.drawRectangle(10, y - headerHeight - rowHeight, pageWidth - 20, headerHeight + rowHeight, Color.WHITE);
+        pageBatch.switchToPage(pdfManager.currentPage);
+        return pageBatch.drawForm(templates.getTableHeaderForm(pageWidth - 20), 10, reservedRectangle.getUpperRightY() - headerHeight);
+    }
+
+    private PDRectangle writeComponentRow(final float pageWidth, final float y, final BomComponent component, final boolean isOdd, final boolean isFirstRow) throws IOException {
         final float componentNameWidth = 125F;
         final float componentVersionWidth = 115F;
         final float componentLicenseWidth = 150F;
@@ -189,6 +440,11 @@ public class RiskReportPdfWriter {
         if (StringUtils.isNotBlank(component.getComponentName())) {
             componentNameTextLines = StringManager.wrapToCombinedList(component.getComponentName(), Math.round(componentNameWidth));
         }
+        if (component instanceof PortfolioComponent) {
+            final PortfolioComponent portfolioComponent = (PortfolioComponent) component;
+            componentNameTextLines = new ArrayList<>(componentNameTextLines);
+            componentNameTextLines.addAll(StringManager.wrapToCombinedList("(" + portfolioComponent.getProjectName() + " " + portfolioComponent.getProjectVersion() + ")", Math.round(componentNameWidth)));
+        }
         if (StringUtils.isNotBlank(component.getComponentVersion())) {
             componentVersionTextLines = StringManager.wrapToCombinedList(component.getComponentVersion(), Math.round(componentNameWidth));
         }
@@ -206,85 +462,104 @@ public class RiskReportPdfWriter {
             rowHeight = componentLicenseHeight;
         }
 
-        PDRectangle rowRectangle = null;
-        Color rowColor = Color.WHITE;
-        if (isOdd) {
-            rowColor = new Color(221, 221, 221);
-            rowRectangle = pdfManager.drawRectangle(10, y - rowHeight, pageWidth - 20, rowHeight, rowColor);
-        } else {
-            rowRectangle = pdfManager.drawRectangle(10, y - rowHeight, pageWidth - 20, rowHeight, rowColor);
+        // every page of the table starts with the header row
+        float rowY = y;
+        if (isFirstRow || y - rowHeight < PAGE_BOTTOM_MARGIN) {
+            rowY = writeTableHeader(pageWidth, y, rowHeight).getLowerLeftY();
         }
 
+        // the row background goes through the manager so that it decides when the table continues on a new page
+        final Color rowColor = isOdd ? ODD_ROW_COLOR : Color.WHITE;
+        final PDRectangle rowRectangle = pdfManager.drawRectangle(10, rowY - rowHeight, pageWidth - 20, rowHeight, rowColor);
+        pageBatch.switchToPage(pdfManager.currentPage);
+
         final float rowUpperY = rowRectangle.getUpperRightY();
         if (StringUtils.isNotBlank(component.getPolicyStatus()) && component.getPolicyStatus().equalsIgnoreCase("IN_VIOLATION")) {
-            pdfManager.drawImageCentered(15, rowUpperY, 8, 8, 0, rowHeight, "/riskreport/web/images/cross_through_circle.png");
-        }
-        String componentURL = "";
-        if (StringUtils.isNotBlank(component.getComponentURL())) {
-            componentURL = component.getComponentURL();
+            pageBatch.drawImageCentered(15, rowUpperY, 8, 8, 0, rowHeight, "/riskreport/web/images/cross_through_circle.png");
         }
-        String componentVersionURL = "";
-        if (StringUtils.isNotBlank(component.getComponentVersionURL())) {
-            componentVersionURL = component.getComponentVersionURL();
-        }
-        pdfManager.writeWrappedVerticalCenteredLink(30F, rowUpperY, componentNameWidth, rowHeight, componentNameTextLines, componentURL, PDFBoxManager.DEFAULT_COLOR);
-        pdfManager.writeWrappedCenteredLink(210, rowUpperY, componentVersionWidth, rowHeight, componentVersionTextLines, componentVersionURL, PDFBoxManager.DEFAULT_COLOR);
+        writeWrappedCellText(30F, rowUpperY, componentNameWidth, rowHeight, componentNameTextLines, component.getComponentURL());
+        writeWrappedCellText(210, rowUpperY, componentVersionWidth, rowHeight, componentVersionTextLines, component.getComponentVersionURL());
 
         final Risk licenseRisk = getLicenseRisk(component, rowColor);
 
         if (StringUtils.isNotBlank(licenseRisk.riskShortString)) {
-            pdfManager.drawRectangleCentered(282, rowUpperY - 1, 12, 12, rowHeight, licenseRisk.riskColor);
-            pdfManager.writeTextCentered(282, rowUpperY, rowHeight, licenseRisk.riskShortString);
+            pageBatch.fillRectangleCentered(282, rowUpperY - 1, 12, 12, rowHeight, licenseRisk.riskColor);
+            pageBatch.writeTextCentered(282, rowUpperY, rowHeight, licenseRisk.riskShortString, PDFBoxManager.DEFAULT_FONT, PDFBoxManager.DEFAULT_FONT_SIZE, PDFBoxManager.DEFAULT_COLOR);
         }
 
-        pdfManager.writeWrappedVerticalCenteredText(290, rowUpperY, componentLicenseWidth, rowHeight, componentLicenseTextLines);
+        writeWrappedCellText(290, rowUpperY, componentLicenseWidth, rowHeight, componentLicenseTextLines, null);
 
-        pdfManager.writeTextCentered(434, rowUpperY, rowHeight, String.valueOf(component.getSecurityRiskHighCount()));
-        pdfManager.writeTextCentered(477, rowUpperY, rowHeight, String.valueOf(component.getSecurityRiskMediumCount()));
-        pdfManager.writeTextCentered(520, rowUpperY, rowHeight, String.valueOf(component.getSecurityRiskLowCount()));
+        pageBatch.writeTextCentered(434, rowUpperY, rowHeight, String.valueOf(component.getSecurityRiskHighCount()), PDFBoxManager.DEFAULT_FONT, PDFBoxManager.DEFAULT_FONT_SIZE, PDFBoxManager.DEFAULT_COLOR);
+        pageBatch.writeTextCentered(477, rowUpperY, rowHeight, String.valueOf(component.getSecurityRiskMediumCount()), PDFBoxManager.DEFAULT_FONT, PDFBoxManager.DEFAULT_FONT_SIZE, PDFBoxManager.DEFAULT_COLOR);
+        pageBatch.writeTextCentered(520, rowUpperY, rowHeight, String.valueOf(component.getSecurityRiskLowCount()), PDFBoxManager.DEFAULT_FONT, PDFBoxManager.DEFAULT_FONT_SIZE, PDFBoxManager.DEFAULT_COLOR);
 
         final Risk operationalRisk = getOperationalRisk(component, rowColor);
 
-        pdfManager.drawRectangle(545, rowRectangle.getLowerLeftY(), 60, rowHeight, operationalRisk.riskColor);
-        pdfManager.writeTextCentered(575, rowUpperY, rowHeight, operationalRisk.riskShortString, PDFBoxManager.DEFAULT_FONT_BOLD, 12, PDFBoxManager.DEFAULT_COLOR);
+        if (!operationalRisk.riskColor.equals(rowColor)) {
+            pageBatch.fillRectangle(545, rowRectangle.getLowerLeftY(), 60, rowHeight, operationalRisk.riskColor);
+        }
+        pageBatch.writeTextCentered(575, rowUpperY, rowHeight, operationalRisk.riskShortString, PDFBoxManager.DEFAULT_FONT_BOLD, 12, PDFBoxManager.DEFAULT_COLOR);
 
         return rowRectangle;
     }
 
-    public Risk getLicenseRisk(final BomComponent component, final Color noColor) {
-        final Risk risk = new Risk();
-        risk.riskShortString = "";
-        risk.riskColor = noColor;
-        if (component.getLicenseRiskHighCount() > 0) {
-            risk.riskShortString = "H";
-            risk.riskColor = decode("#b52b24");
-        } else if (component.getLicenseRiskMediumCount() > 0) {
-            risk.riskShortString = "M";
-            risk.riskColor = decode("#eca4a0");
-        } else if (component.getLicenseRiskLowCount() > 0) {
-            risk.riskShortString = "L";
-            risk.riskColor = new Color(153, 153, 153);
+    private void writeWrappedCellText(final float x, final float cellUpperY, final float width, final float cellHeight, final List<String> textLines, final String url) throws IOException {
+        if (textLines.isEmpty()) {
+            return;
+        }
+        final float fontSize = PDFBoxManager.DEFAULT_FONT_SIZE;
+        final float lineHeight = pdfManager.getApproximateWrappedStringHeight(2, fontSize) - pdfManager.getApproximateWrappedStringHeight(1, fontSize);
+        final float textHeight = pdfManager.getApproximateWrappedStringHeight(textLines.size(), fontSize);
+        float baselineY = cellUpperY - ((cellHeight - textHeight) / 2) - fontSize;
+
+        float textRightX = x;
+        for (final String textLine : textLines) {
+            final PDRectangle lineRectangle = pageBatch.writeText(x, baselineY, textLine, PDFBoxManager.DEFAULT_FONT, fontSize, PDFBoxManager.DEFAULT_COLOR);
+            textRightX = Math.max(textRightX, lineRectangle.getUpperRightX());
+            baselineY -= lineHeight;
+        }
+        if (StringUtils.isNotBlank(url)) {
+            final float textBottomY = baselineY + lineHeight;
+            pageBatch.addLink(new PDRectangle(x, textBottomY, Math.min(textRightX - x, width), cellUpperY - ((cellHeight - textHeight) / 2) - textBottomY), url);
         }
-        return risk;
+    }
+
+    public Risk getLicenseRisk(final BomComponent component, final Color noColor) {
+        return getRisk(RiskLevel.ofLicenseRisk(component), "", noColor);
     }
 
     public Risk getOperationalRisk(final BomComponent component, final Color noColor) {
+        return getRisk(RiskLevel.ofOperationalRisk(component), "-", noColor);
+    }
+
+    private Risk getRisk(final RiskLevel riskLevel, final String noRiskString, final Color noColor) {
         final Risk risk = new Risk();
-        risk.riskShortString = "-";
-        risk.riskColor = noColor;
-        if (component.getOperationalRiskHighCount() > 0) {
+        switch (riskLevel) {
+        case HIGH:
             risk.riskShortString = "H";
-            risk.riskColor = decode("#b52b24");
-        } else if (component.getOperationalRiskMediumCount() > 0) {
+            risk.riskColor = HIGH_RISK_COLOR;
+            break;
+        case MEDIUM:
             risk.riskShortString = "M";
-            risk.riskColor = decode("#eca4a0");
-        } else if (component.getOperationalRiskLowCount() > 0) {
+            risk.riskColor = MED_RISK_COLOR;
+            break;
+        case LOW:
             risk.riskShortString = "L";
-            risk.riskColor = new Color(153, 153, 153);
+            risk.riskColor = LOW_RISK_COLOR;
+            break;
+        default:
+            risk.riskShortString = noRiskString;
+            risk.riskColor = noColor;
+            break;
         }
         return risk;
     }
 
+    @FunctionalInterface
+    private interface ReportContent {
+        void write(float pageWidth, float startingHeight) throws IOException, RiskReportException;
+    }
+
     private class Risk {
         public String riskShortString;
         public Color riskColor;
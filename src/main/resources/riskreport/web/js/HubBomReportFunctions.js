@@ -214,22 +214,48 @@ function filterTable(riskReportTable, riskToFilter, shouldRemoveFilter,
 		if (shouldRemoveFilter) {
 			removeFilterFromRow(riskReportTable.rows[i], filterClassName);
 		} else {
-			if (filterClassName == filteredSecurityClassName) {
-				filterRowBySecurity(riskReportTable.rows[i], riskToFilter,
-						filterClassName);
-			} else if (filterClassName == filteredLicenseClassName) {
-				filterRowByOtherRisk(riskReportTable.rows[i], riskToFilter,
-						filterClassName, licenseRiskColumnNum);
-			} else if (filterClassName == filteredOperationalClassName) {
-				filterRowByOtherRisk(riskReportTable.rows[i], riskToFilter,
-						filterClassName, operationRiskColumnNum);
-			}
+			filterRow(riskReportTable.rows[i], riskToFilter, filterClassName);
 		}
 		adjustTableRow(riskReportTable.rows[i], odd);
 		odd = !odd;
 	}
 }
 
+function filterRow(row, riskToFilter, filterClassName) {
+	if (filterClassName == filteredSecurityClassName) {
+		filterRowBySecurity(row, riskToFilter, filterClassName);
+	} else if (filterClassName == filteredLicenseClassName) {
+		filterRowByOtherRisk(row, riskToFilter, filterClassName,
+				licenseRiskColumnNum);
+	} else if (filterClassName == filteredOperationalClassName) {
+		filterRowByOtherRisk(row, riskToFilter, filterClassName,
+				operationRiskColumnNum);
+	}
+}
+
+// rows added to the table after a risk was selected are filtered by the
+// selected risks as well
+function filterRowBySelectedRisks(row) {
+	filterRowBySelectedRisk(row, [ 'highSecurityRiskLabel',
+			'mediumSecurityRiskLabel', 'lowSecurityRiskLabel',
+			'noneSecurityRiskLabel' ], filteredSecurityClassName);
+	filterRowBySelectedRisk(row, [ 'highLicenseRiskLabel',
+			'mediumLicenseRiskLabel', 'lowLicenseRiskLabel',
+			'noneLicenseRiskLabel' ], filteredLicenseClassName);
+	filterRowBySelectedRisk(row, [ 'highOperationalRiskLabel',
+			'mediumOperationalRiskLabel', 'lowOperationalRiskLabel',
+			'noneOperationalRiskLabel' ], filteredOperationalClassName);
+}
+
+function filterRowBySelectedRisk(row, riskIds, filterClassName) {
+	for (var i = 0; i < riskIds.length; i++) {
+		var riskLabel = document.getElementById(riskIds[i]);
+		if (riskLabel && riskLabel.className.indexOf(" filterSelected") != -1) {
+			filterRow(row, riskLabel, filterClassName);
+		}
+	}
+}
+
 function filterRowBySecurity(row, riskToFilter, filterClassName) {
 	if (riskToFilter.id.indexOf("none") != -1) {
 		// only show the rows that have no security risks
@@ -314,6 +340,11 @@ function removeFilterFromRow(row, filterClassName) {
 }
 
 function initSortTable() {
+	// rows still arriving from the report worker would be left out of the
+	// sort, so the table is made sortable once all of them are loaded
+	if (document.getElementById("componentsLoading") != null) {
+		return;
+	}
 	if(sortTableInitialized == false) {
 		sortTableInitialized = true;
 		console.log("initializing sort table");
@@ -34,18 +34,6 @@ var RiskReport = function (myJQuery, jsonData) {
         return percentage;
 	};
 	
-	RiskReport.prototype.createRiskString = function (high, medium, low) {
-        if (high != 0) {
-            return "H";
-        } else if (medium != 0) {
-            return "M";
-        } else if (low != 0) {
-            return "L";
-        } else {
-            return "-";
-        }
-	};
-	
 	RiskReport.prototype.createPhaseString = function (phase) {
 		if(phase == "PLANNING") {
 			return "In Planning";
@@ -91,7 +79,30 @@ var RiskReport = function (myJQuery, jsonData) {
 		return reportHeader;
 	};
 	
+	RiskReport.prototype.isPortfolio = function () {
+		return this.rawdata.projectCount !== undefined;
+	};
+	
+	RiskReport.prototype.createPortfolioSummary = function () {
+		var table = document.createElement("div");
+		this.myJQuery(table).addClass("versionSummaryTable");
+		var portfolioInfo = document.createElement("div");
+		this.myJQuery(portfolioInfo).append(this.myJQuery('<div class="versionSummaryLargeLabel">Portfolio</div>'));
+		var info = this.myJQuery(document.createElement("div"));
+		this.myJQuery(info).append(this.myJQuery('<div class="versionSummaryLabel">Project Versions:</div>'));
+		this.myJQuery(info).append(this.myJQuery('<div class="versionSummaryLabel">'+this.rawdata.projectCount+'</div>'));
+		this.myJQuery(info).append(this.myJQuery('<div class="versionSummaryLabel">|</div>'));
+		this.myJQuery(info).append(this.myJQuery('<div class="versionSummaryLabel">Riskiest Components:</div>'));
+		this.myJQuery(info).append(this.myJQuery('<div class="versionSummaryLabel">'+this.rawdata.componentCount+'</div>'));
+		this.myJQuery(table).append(portfolioInfo);
+		this.myJQuery(table).append(info);
+		return table;
+	};
+	
 	RiskReport.prototype.createVersionSummary = function () {
+		if (this.isPortfolio()) {
+			return this.createPortfolioSummary();
+		}
 		var table = document.createElement("div");
 		this.myJQuery(table).addClass("versionSummaryTable");
 		var versionInfo = document.createElement("div");
@@ -287,7 +298,8 @@ var RiskReport = function (myJQuery, jsonData) {
 		return tableHead;
 	};
 	
-	RiskReport.prototype.createComponentTableRow = function (entry) {
+	// the classification comes from the worker, see classify in HubRiskReportWorker.js
+	RiskReport.prototype.createComponentTableRow = function (entry, classification) {
 		var tableRow = document.createElement("tr");
 		var columnApprovalStatus = document.createElement("td");
 		this.myJQuery(columnApprovalStatus).addClass("evenPadding violation");
@@ -302,6 +314,12 @@ var RiskReport = function (myJQuery, jsonData) {
 			this.myJQuery(columnComponent).attr("onclick" ,"window.open('"+entry.componentURL+"', '_blank');");
 		}
 		this.myJQuery(columnComponent).text(entry.componentName);
+		if(entry.projectName) {
+			var projectDiv = document.createElement("div");
+			this.myJQuery(projectDiv).addClass("riskReportText");
+			this.myJQuery(projectDiv).text(entry.projectName + " " + entry.projectVersion);
+			this.myJQuery(columnComponent).append(projectDiv);
+		}
 
         var columnVersion = document.createElement("td");
         if(entry.componentVersion){
@@ -328,37 +346,37 @@ var RiskReport = function (myJQuery, jsonData) {
         var columnHighRisk = document.createElement("td");
         this.myJQuery(columnHighRisk).addClass("riskColumn");
         var highRiskDiv = document.createElement("div");
-        this.myJQuery(highRiskDiv).addClass("risk-span riskColumn risk-count");
+        this.myJQuery(highRiskDiv).addClass("risk-span riskColumn risk-count " + classification.securityRiskClasses[0]);
         this.myJQuery(highRiskDiv).text(entry.securityRiskHighCount);
         this.myJQuery(columnHighRisk).append(highRiskDiv);
 
         var columnMediumRisk = document.createElement("td");
         this.myJQuery(columnMediumRisk).addClass("riskColumn");
         var mediumRiskDiv = document.createElement("div");
-        this.myJQuery(mediumRiskDiv).addClass("risk-span riskColumn risk-count");
+        this.myJQuery(mediumRiskDiv).addClass("risk-span riskColumn risk-count " + classification.securityRiskClasses[1]);
         this.myJQuery( mediumRiskDiv).text(entry.securityRiskMediumCount);
         this.myJQuery(columnMediumRisk).append(mediumRiskDiv);
 
         var columnLowRisk = document.createElement("td");
         this.myJQuery(columnLowRisk).addClass("riskColumn");
         var lowRiskDiv = document.createElement("div");
-        this.myJQuery(lowRiskDiv).addClass("risk-span riskColumn risk-count");
+        this.myJQuery(lowRiskDiv).addClass("risk-span riskColumn risk-count " + classification.securityRiskClasses[2]);
         this.myJQuery(lowRiskDiv).text(entry.securityRiskLowCount);
         this.myJQuery(columnLowRisk).append(lowRiskDiv);
 
         var columnLicenseRisk = document.createElement("td");
         this.myJQuery(columnLicenseRisk).addClass("riskColumn");
         var licRiskDiv = document.createElement("div");
-        this.myJQuery(licRiskDiv).addClass("risk-span riskColumn risk-count");
-        this.myJQuery(licRiskDiv).text(this.createRiskString(entry.licenseRiskHighCount, entry.licenseRiskMediumCount, entry.licenseRiskLowCount));
+        this.myJQuery(licRiskDiv).addClass("risk-span riskColumn risk-count " + classification.licenseRiskClass);
+        this.myJQuery(licRiskDiv).text(classification.licenseRisk);
         this.myJQuery(columnLicenseRisk).append(licRiskDiv);
         
         var columnOperationalRisk = document.createElement("td");
                 
         this.myJQuery(columnOperationalRisk).addClass("riskColumn");
         var opRiskDiv = document.createElement("div");
-        this.myJQuery(opRiskDiv).addClass("risk-span riskColumn risk-count");
-        this.myJQuery(opRiskDiv).text(this.createRiskString(entry.operationalRiskHighCount, entry.operationalRiskMediumCount, entry.operationalRiskLowCount));
+        this.myJQuery(opRiskDiv).addClass("risk-span riskColumn risk-count " + classification.operationalRiskClass);
+        this.myJQuery(opRiskDiv).text(classification.operationalRisk);
         this.myJQuery(columnOperationalRisk).append(opRiskDiv);
         
         this.myJQuery(tableRow).append(columnApprovalStatus);
@@ -371,6 +389,9 @@ var RiskReport = function (myJQuery, jsonData) {
         this.myJQuery(tableRow).append(columnLicenseRisk);
         this.myJQuery(tableRow).append(columnOperationalRisk);
         
+        for (var cell = 0; cell < classification.sortKeys.length; cell++) {
+        	tableRow.cells[cell].setAttribute("sorttable_customkey", classification.sortKeys[cell]);
+        }
 		return tableRow;
 	};
 	
@@ -383,21 +404,126 @@ var RiskReport = function (myJQuery, jsonData) {
 		this.myJQuery(table).append(this.createComponentTableHead());
 		var tableBody = document.createElement("tbody");
 		this.myJQuery(tableBody).attr("id","hubBomReportBody");
-		var entryArray = this.rawdata.components;
-		var odd = true;
-		for (var index = 0; index < entryArray.length; index++) { 
+		this.myJQuery(table).append(tableBody);
+		return table;
+	};
+	
+	// the rows arrive from the worker in batches and are appended to the table on the page
+	RiskReport.prototype.appendComponentRows = function (rows) {
+		var rowFragment = document.createDocumentFragment();
+		for (var index = 0; index < rows.length; index++) { 
 			try {
-				var tableRow = this.createComponentTableRow(entryArray[index]);
-				adjustTableRow(tableRow, odd);
-				adjustSecurityRisks(tableRow);
-				adjustOtherRisks(tableRow, licenseRiskColumnNum);
-				adjustOtherRisks(tableRow, operationRiskColumnNum);
-				odd = !odd;
-				this.myJQuery(tableBody).append(tableRow);
+				var tableRow = this.createComponentTableRow(rows[index].component, rows[index]);
+				tableRow.setAttribute("data-component-index", rows[index].index);
+				adjustTableRow(tableRow, this.oddRow);
+				filterRowBySelectedRisks(tableRow);
+				if (tableRow.className.indexOf("rowFiltered") == -1) {
+					this.oddRow = !this.oddRow;
+				}
+				rowFragment.appendChild(tableRow);
 			} catch (ex) {
 				console.log("Exception creating table row in Component Table" + ex);
 			}
 		}
+		document.getElementById("hubBomReportBody").appendChild(rowFragment);
+	};
+	
+	RiskReport.prototype.createPolicyViolationTable = function () {
+		var table = document.createElement("table");
+		this.myJQuery(table).attr("id","policyViolations");
+		this.myJQuery(table).addClass("table");
+		var tableHead = document.createElement("thead");
+		var tableHeadRow = document.createElement("tr");
+		this.myJQuery(tableHeadRow).append(this.myJQuery('<th class="columnLabel evenPadding">Policy Rule</th>'));
+		this.myJQuery(tableHeadRow).append(this.myJQuery('<th class="riskColumnLabel evenPadding">Count</th>'));
+		this.myJQuery(tableHeadRow).append(this.myJQuery('<th class="columnLabel evenPadding">Components</th>'));
+		this.myJQuery(tableHead).append(tableHeadRow);
+		this.myJQuery(table).append(tableHead);
+		
+		var tableBody = document.createElement("tbody");
+		var ruleArray = this.rawdata.policyRuleViolations;
+		var odd = true;
+		for (var ruleIndex = 0; ruleIndex < ruleArray.length; ruleIndex++) {
+			var violations = ruleArray[ruleIndex];
+			var tableRow = document.createElement("tr");
+			this.myJQuery(tableRow).addClass(odd ? "oddRow" : "evenRow");
+			
+			var columnRule = document.createElement("td");
+			this.myJQuery(columnRule).addClass("componentColumn evenPadding violation");
+			if (violations.rule.description) {
+				this.myJQuery(columnRule).attr("title", violations.rule.description);
+			}
+			this.myJQuery(columnRule).text(violations.rule.name);
+			
+			var columnCount = document.createElement("td");
+			this.myJQuery(columnCount).addClass("riskColumn evenPadding");
+			this.myJQuery(columnCount).text(violations.componentIndexes.length);
+			
+			// the worker resolves the indexed components to their names
+			var columnComponents = document.createElement("td");
+			this.myJQuery(columnComponents).addClass("riskReportText evenPadding");
+			this.myJQuery(columnComponents).text(violations.componentNames.join(", "));
+			
+			this.myJQuery(tableRow).append(columnRule);
+			this.myJQuery(tableRow).append(columnCount);
+			this.myJQuery(tableRow).append(columnComponents);
+			this.myJQuery(tableBody).append(tableRow);
+			odd = !odd;
+		}
+		this.myJQuery(table).append(tableBody);
+		return table;
+	};
+	
+	RiskReport.prototype.createLicenseTable = function () {
+		var table = document.createElement("table");
+		this.myJQuery(table).attr("id","licenseCounts");
+		this.myJQuery(table).addClass("table");
+		var tableHead = document.createElement("thead");
+		var tableHeadRow = document.createElement("tr");
+		this.myJQuery(tableHeadRow).append(this.myJQuery('<th class="columnLabel evenPadding">License</th>'));
+		this.myJQuery(tableHeadRow).append(this.myJQuery('<th class="columnLabel evenPadding">Components</th>'));
+		this.myJQuery(tableHeadRow).append(this.myJQuery('<th class="riskColumnLabel evenPadding">High</th>'));
+		this.myJQuery(tableHeadRow).append(this.myJQuery('<th class="riskColumnLabel evenPadding">Medium</th>'));
+		this.myJQuery(tableHeadRow).append(this.myJQuery('<th class="riskColumnLabel evenPadding">Low</th>'));
+		this.myJQuery(tableHeadRow).append(this.myJQuery('<th class="riskColumnLabel evenPadding">None</th>'));
+		this.myJQuery(tableHead).append(tableHeadRow);
+		this.myJQuery(table).append(tableHead);
+		
+		var tableBody = document.createElement("tbody");
+		// the counts come sorted from the report, the most used license first
+		var licenseArray = this.rawdata.licenseCounts;
+		var odd = true;
+		for (var index = 0; index < licenseArray.length; index++) {
+			var licenseCount = licenseArray[index];
+			var noRiskCount = licenseCount.componentCount - licenseCount.highRiskCount - licenseCount.mediumRiskCount - licenseCount.lowRiskCount;
+			var tableRow = document.createElement("tr");
+			this.myJQuery(tableRow).addClass(odd ? "oddRow" : "evenRow");
+			
+			var columnLicense = document.createElement("td");
+			this.myJQuery(columnLicense).addClass("licenseColumn evenPadding");
+			var licenseName = licenseCount.license ? licenseCount.license : "Unknown License";
+			this.myJQuery(columnLicense).attr("title", licenseName);
+			this.myJQuery(columnLicense).text(licenseName);
+			this.myJQuery(tableRow).append(columnLicense);
+			
+			var columnCount = document.createElement("td");
+			this.myJQuery(columnCount).addClass("evenPadding");
+			this.myJQuery(columnCount).append(this.myJQuery('<div class="progress-bar horizontal">'
+					+'<div class="riskSummaryCount">' + licenseCount.componentCount + '</div>'
+					+'<div class="progress-track"><div class="progress-fill-none" style="width:' + this.getPercentage(licenseCount.componentCount) + '%;"></div></div>'
+					+'</div>'));
+			this.myJQuery(tableRow).append(columnCount);
+			
+			var riskCounts = [licenseCount.highRiskCount, licenseCount.mediumRiskCount, licenseCount.lowRiskCount, noRiskCount];
+			for (var riskIndex = 0; riskIndex < riskCounts.length; riskIndex++) {
+				var columnRisk = document.createElement("td");
+				this.myJQuery(columnRisk).addClass("riskColumn evenPadding");
+				this.myJQuery(columnRisk).text(riskCounts[riskIndex]);
+				this.myJQuery(tableRow).append(columnRisk);
+			}
+			this.myJQuery(tableBody).append(tableRow);
+			odd = !odd;
+		}
 		this.myJQuery(table).append(tableBody);
 		return table;
 	};
@@ -410,8 +536,140 @@ var RiskReport = function (myJQuery, jsonData) {
 		this.myJQuery(report).append(this.createSecurityRiskContainer());
 		this.myJQuery(report).append(this.createLicenseRiskContainer());
 		this.myJQuery(report).append(this.createOperationalRiskContainer());
+		if (this.rawdata.policyRuleViolations && this.rawdata.policyRuleViolations.length > 0) {
+			this.myJQuery(report).append(this.myJQuery('<div class="riskSummaryContainerLabel">Violations by Policy Rule</div>'));
+			this.myJQuery(report).append(this.createPolicyViolationTable());
+		}
+		if (this.rawdata.licenseCounts && this.rawdata.licenseCounts.length > 0) {
+			this.myJQuery(report).append(this.myJQuery('<div class="riskSummaryContainerLabel">Components by License</div>'));
+			this.myJQuery(report).append(this.createLicenseTable());
+		}
 		this.myJQuery(report).append(this.createSummaryTable());
+		if (this.rawdata.searchable) {
+			this.myJQuery(report).append(this.myJQuery('<div class="riskSummaryContainerLabel">Search '
+					+'<input type="search" id="componentSearch" placeholder="Component, version or license" oninput="searchComponents(this.value);">'
+					+'</div>'));
+		}
 		var table = this.createComponentTable();
 		this.myJQuery(report).append(table);
+		if (this.rawdata.componentCount > 0) {
+			this.myJQuery(report).append(this.myJQuery('<div id="componentsLoading" class="riskReportText evenPadding">Loading components...</div>'));
+		}
 		this.myJQuery("#riskReportDiv").html(this.myJQuery(report).html());
-	};
\ No newline at end of file
+		this.oddRow = true;
+	};
+	
+	RiskReport.prototype.load = function (json) {
+		this.startWorker(createRiskReportWorker(), json);
+	};
+	
+	RiskReport.prototype.startWorker = function (worker, json) {
+		var riskReport = this;
+		this.worker = worker;
+		this.searchSequence = 0;
+		worker.onmessage = function (event) {
+			riskReport.handleWorkerMessage(event.data);
+		};
+		worker.onerror = function (event) {
+			// a browser may refuse to run the worker only once it starts, the data is then decoded on the page
+			if (riskReport.rawdata == null && !(worker instanceof InlineRiskReportWorker)) {
+				console.log("Could not run the report worker, loading the report on the page. " + event.message);
+				worker.terminate();
+				riskReport.startWorker(new InlineRiskReportWorker(), json);
+			}
+		};
+		worker.postMessage({type: "load", json: json});
+	};
+	
+	RiskReport.prototype.handleWorkerMessage = function (message) {
+		if (message.type == "summary") {
+			this.rawdata = message.report;
+			this.createReport();
+		} else if (message.type == "rows") {
+			this.appendComponentRows(message.rows);
+			if (this.searchMatches) {
+				this.filterComponentRows(this.searchMatches);
+			}
+		} else if (message.type == "loaded") {
+			this.myJQuery("#componentsLoading").remove();
+			// the table is only sortable once every row is in it
+			initSortTable();
+		} else if (message.type == "searched" && message.sequence == this.searchSequence) {
+			this.searchMatches = message.matches;
+			this.filterComponentRows(message.matches);
+		}
+	};
+	
+	RiskReport.prototype.search = function (query) {
+		this.searchSequence++;
+		this.worker.postMessage({type: "search", sequence: this.searchSequence, query: query});
+	};
+	
+	RiskReport.prototype.filterComponentRows = function (matches) {
+		var matched = null;
+		if (matches != null) {
+			matched = {};
+			for (var index = 0; index < matches.length; index++) {
+				matched[matches[index]] = true;
+			}
+		}
+		var rows = document.getElementById("hubBomReportBody").rows;
+		var odd = true;
+		for (var i = 0; i < rows.length; i++) {
+			if (matched == null || matched[rows[i].getAttribute("data-component-index")]) {
+				removeFilterFromRow(rows[i], filteredSearchClassName);
+			} else {
+				filterRowByRisk(rows[i], filteredSearchClassName);
+			}
+			if (rows[i].className.indexOf("rowFiltered") == -1) {
+				adjustTableRow(rows[i], odd);
+				odd = !odd;
+			}
+		}
+	};
+
+var filteredSearchClassName = " rowFilteredSearch";
+
+var loadedRiskReport = null;
+
+// starts decoding the report data embedded in the page, the report is rendered as the worker delivers it
+function loadRiskReport(myJQuery, dataElementId) {
+	loadedRiskReport = new RiskReport(myJQuery, null);
+	loadedRiskReport.load(document.getElementById(dataElementId).textContent);
+	return loadedRiskReport;
+}
+
+function searchComponents(query) {
+	if (loadedRiskReport != null) {
+		loadedRiskReport.search(query);
+	}
+}
+
+// the worker script is built from the loaded function, a worker started from a file url is refused by most browsers
+function createRiskReportWorker() {
+	try {
+		var workerSource = new Blob(["(" + riskReportWorker.toString() + ")(self);"], {type: "application/javascript"});
+		return new Worker(URL.createObjectURL(workerSource));
+	} catch (ex) {
+		console.log("Could not start the report worker, loading the report on the page. " + ex);
+		return new InlineRiskReportWorker();
+	}
+}
+
+// runs the worker on the page, every message is still handled in its own task
+var InlineRiskReportWorker = function () {
+	var worker = this;
+	var scope = {
+		postMessage: function (message) {
+			setTimeout(function () {
+				worker.onmessage({data: message});
+			}, 0);
+		}
+	};
+	riskReportWorker(scope);
+	this.postMessage = function (message) {
+		setTimeout(function () {
+			scope.onmessage({data: message});
+		}, 0);
+	};
+};
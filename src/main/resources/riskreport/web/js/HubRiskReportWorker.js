@@ -0,0 +1,275 @@
+/*
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+// Decodes the report data, classifies the components and answers searches. The page starts this function in a Web Worker, or calls it on the page
+// when no worker can be started, so it may only use what it declares itself and the scope it is given.
+function riskReportWorker(scope) {
+	var BATCH_SIZE = 500;
+	var FINAL_DIGITS = "0123456789abcdefghijklmnopqrstuv";
+	var CONTINUATION_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZwxyz_.";
+	// the punctuation, symbols and emoji that Character.isLetterOrDigit rejects, so no word in the search index starts with them
+	var NOT_LETTER_OR_DIGIT = /^(?:[\x00-\x2f\x3a-\x40\x5b-\x60\x7b-\xbf\xd7\xf7\u2000-\u2bff\u3000-\u303f]|[\uD83C-\uD83E][\uDC00-\uDFFF])$/;
+	
+	var search = null;
+	
+	// the highest level with a count, as RiskLevel does for the pdf report and the export
+	var createRiskString = function (high, medium, low) {
+		if (high > 0) {
+			return "H";
+		} else if (medium > 0) {
+			return "M";
+		} else if (low > 0) {
+			return "L";
+		} else {
+			return "-";
+		}
+	};
+	
+	var riskRank = function (riskString) {
+		return "-LMH".indexOf(riskString);
+	};
+	
+	var riskClass = function (riskString) {
+		if (riskString == "H") {
+			return "security-risk-high-count";
+		} else if (riskString == "M") {
+			return "security-risk-med-count";
+		} else if (riskString == "L") {
+			return "security-risk-low-count";
+		} else {
+			return "";
+		}
+	};
+	
+	// pads every number so versions sort as text, 1.10 after 1.9. The leading letter keeps sorttable from taking the padded key for a number, which
+	// would compare only its major and minor part
+	var createVersionKey = function (version) {
+		if (!version) {
+			return "";
+		}
+		return "v" + version.toLowerCase().replace(/\d+/g, function (number) {
+			return ("0000000000" + number).slice(-10);
+		});
+	};
+	
+	// the name and the version that are not blank, or an empty string when both are, as the pdf report lists the components violating a rule
+	var createComponentLabel = function (component) {
+		var parts = [];
+		if (component.componentName && component.componentName.trim()) {
+			parts.push(component.componentName);
+		}
+		if (component.componentVersion && component.componentVersion.trim()) {
+			parts.push(component.componentVersion);
+		}
+		return parts.join(" ");
+	};
+	
+	// the sort keys of the component table cells, see sorttable_customkey in Sortable.js
+	var classify = function (component, index) {
+		var licenseRisk = createRiskString(component.licenseRiskHighCount, component.licenseRiskMediumCount, component.licenseRiskLowCount);
+		var operationalRisk = createRiskString(component.operationalRiskHighCount, component.operationalRiskMediumCount, component.operationalRiskLowCount);
+		return {
+			index: index,
+			component: component,
+			securityRiskClasses: [component.securityRiskHighCount > 0 ? "security-risk-high-count" : "",
+				component.securityRiskMediumCount > 0 ? "security-risk-med-count" : "",
+				component.securityRiskLowCount > 0 ? "security-risk-low-count" : ""],
+			licenseRisk: licenseRisk,
+			licenseRiskClass: riskClass(licenseRisk),
+			operationalRisk: operationalRisk,
+			operationalRiskClass: riskClass(operationalRisk),
+			sortKeys: [component.policyStatus == "IN_VIOLATION" ? 1 : 0,
+				component.componentName ? component.componentName.toLowerCase() : "",
+				createVersionKey(component.componentVersion),
+				component.license ? component.license.toLowerCase() : "",
+				component.securityRiskHighCount,
+				component.securityRiskMediumCount,
+				component.securityRiskLowCount,
+				riskRank(licenseRisk),
+				riskRank(operationalRisk)]
+		};
+	};
+	
+	var load = function (json) {
+		var data = JSON.parse(json);
+		var components = data.components ? data.components : [];
+		var report = {};
+		for (var field in data) {
+			if (field != "components" && field != "searchIndex") {
+				report[field] = data[field];
+			}
+		}
+		report.componentCount = components.length;
+		report.searchable = data.searchIndex ? true : false;
+		// the policy rule index points into the components, which stay in the worker
+		if (report.policyRuleViolations) {
+			for (var ruleIndex = 0; ruleIndex < report.policyRuleViolations.length; ruleIndex++) {
+				var violations = report.policyRuleViolations[ruleIndex];
+				violations.componentNames = [];
+				for (var i = 0; i < violations.componentIndexes.length; i++) {
+					var componentLabel = createComponentLabel(components[violations.componentIndexes[i]]);
+					if (componentLabel) {
+						violations.componentNames.push(componentLabel);
+					}
+				}
+			}
+		}
+		if (data.searchIndex) {
+			search = new ComponentSearch(components, data.searchIndex);
+		}
+		scope.postMessage({type: "summary", report: report});
+		
+		// every batch is its own message, so the page handles input between them
+		for (var start = 0; start < components.length; start += BATCH_SIZE) {
+			var rows = [];
+			var end = Math.min(start + BATCH_SIZE, components.length);
+			for (var index = start; index < end; index++) {
+				if (components[index]) {
+					rows.push(classify(components[index], index));
+				}
+			}
+			scope.postMessage({type: "rows", rows: rows});
+		}
+		scope.postMessage({type: "loaded"});
+	};
+	
+	// answers queries from the search index written with the report, see ComponentSearchIndex
+	var ComponentSearch = function (components, searchIndex) {
+		this.components = components;
+		this.gramLength = searchIndex.gramLength;
+		this.encodedPostings = searchIndex.postings;
+		this.postings = {};
+		this.digitValues = {};
+		for (var digit = 0; digit < 32; digit++) {
+			this.digitValues[FINAL_DIGITS.charAt(digit)] = digit;
+			this.digitValues[CONTINUATION_DIGITS.charAt(digit)] = digit + 32;
+		}
+	};
+	
+	ComponentSearch.prototype.getPostings = function (gram) {
+		var positions = this.postings[gram];
+		if (positions === undefined) {
+			// the posting list is the gaps between the positions, every digit but the last of a gap is a continuation digit
+			positions = [];
+			var encoded = this.encodedPostings[gram];
+			if (encoded) {
+				var position = -1;
+				var gap = 0;
+				for (var i = 0; i < encoded.length; i++) {
+					var value = this.digitValues[encoded.charAt(i)];
+					if (value >= 32) {
+						gap = gap * 32 + value - 32;
+					} else {
+						position += gap * 32 + value;
+						positions.push(position);
+						gap = 0;
+					}
+				}
+			}
+			this.postings[gram] = positions;
+		}
+		return positions;
+	};
+	
+	ComponentSearch.prototype.intersect = function (first, second) {
+		var result = [];
+		var i = 0;
+		var j = 0;
+		while (i < first.length && j < second.length) {
+			if (first[i] < second[j]) {
+				i++;
+			} else if (first[i] > second[j]) {
+				j++;
+			} else {
+				result.push(first[i]);
+				i++;
+				j++;
+			}
+		}
+		return result;
+	};
+	
+	ComponentSearch.prototype.containsText = function (value, text) {
+		return value ? value.toLowerCase().indexOf(text) != -1 : false;
+	};
+	
+	ComponentSearch.prototype.matches = function (component, text) {
+		return this.containsText(component.componentName, text) || this.containsText(component.componentVersion, text) || this.containsText(component.license, text);
+	};
+	
+	// returns the positions of the matching components, or null when every component matches
+	ComponentSearch.prototype.find = function (query) {
+		var text = query.toLowerCase().trim();
+		if (text.length == 0) {
+			return null;
+		}
+		// the grams are made of code points, a surrogate pair is one of them
+		var codePoints = text.match(/[\uD800-\uDBFF][\uDC00-\uDFFF]|[\s\S]/g);
+		if (codePoints.length < this.gramLength) {
+			if (NOT_LETTER_OR_DIGIT.test(codePoints[0])) {
+				// only words starting with a letter or a digit have word start grams, so the components are searched one by one
+				return this.scan(text);
+			}
+			// short queries match the start of a word
+			return this.getPostings(" " + text);
+		}
+		var postingLists = [];
+		for (var start = 0; start + this.gramLength <= codePoints.length; start++) {
+			postingLists.push(this.getPostings(codePoints.slice(start, start + this.gramLength).join("")));
+		}
+		postingLists.sort(function (first, second) {
+			return first.length - second.length;
+		});
+		var candidates = postingLists[0];
+		for (var index = 1; index < postingLists.length && candidates.length > 0; index++) {
+			candidates = this.intersect(candidates, postingLists[index]);
+		}
+		// every trigram of the query occurring in a component does not make the query occur in it, so the candidates are checked
+		var matches = [];
+		for (var candidate = 0; candidate < candidates.length; candidate++) {
+			if (this.matches(this.components[candidates[candidate]], text)) {
+				matches.push(candidates[candidate]);
+			}
+		}
+		return matches;
+	};
+	
+	ComponentSearch.prototype.scan = function (text) {
+		var matches = [];
+		for (var position = 0; position < this.components.length; position++) {
+			if (this.components[position] && this.matches(this.components[position], text)) {
+				matches.push(position);
+			}
+		}
+		return matches;
+	};
+	
+	scope.onmessage = function (event) {
+		var message = event.data;
+		if (message.type == "load") {
+			load(message.json);
+		} else if (message.type == "search") {
+			scope.postMessage({type: "searched", sequence: message.sequence, matches: search != null ? search.find(message.query) : null});
+		}
+	};
+}
@@ -0,0 +1,144 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createComponent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+public class ComponentSearchIndexTest {
+
+    @Test
+    public void testPostingsDecodeToThePositions() throws Exception {
+        // the gaps are 1, 31, 32, 1024, 1025 and one needing four digits
+        final List<Integer> positions = Arrays.asList(0, 31, 63, 1087, 2112, 2112 + 40000);
+        final ComponentSearchIndex searchIndex = new ComponentSearchIndex();
+        for (final int position : positions) {
+            searchIndex.add(position, createComponent("abc", null, null));
+        }
+
+        final JsonObject postings = writePostings(searchIndex);
+        assertEquals(positions, decode(postings.get("abc").getAsString()));
+        assertEquals(positions, decode(postings.get(" a").getAsString()));
+        assertEquals(positions, decode(postings.get(" ab").getAsString()));
+        assertEquals(3, postings.size());
+        // a single digit for gaps below 32, a continuation digit for every further five bits
+        assertEquals("1vB0BA0", postings.get("abc").getAsString().substring(0, 7));
+    }
+
+    @Test
+    public void testPositionsAreIndexedOncePerGram() throws Exception {
+        final ComponentSearchIndex searchIndex = new ComponentSearchIndex();
+        searchIndex.add(0, createComponent("abcabc", "abc", "ABC"));
+        searchIndex.add(5, createComponent(null, " ", "xabc"));
+
+        final JsonObject postings = writePostings(searchIndex);
+        assertEquals(Arrays.asList(0, 5), decode(postings.get("abc").getAsString()));
+        assertEquals(Arrays.asList(0), decode(postings.get(" a").getAsString()));
+        assertEquals(Arrays.asList(5), decode(postings.get(" x").getAsString()));
+    }
+
+    @Test
+    public void testWordStartsAreIndexed() throws Exception {
+        final ComponentSearchIndex searchIndex = new ComponentSearchIndex();
+        searchIndex.add(0, createComponent("Apache Commons-IO", "2.6", "x"));
+
+        final JsonObject postings = writePostings(searchIndex);
+        for (final String gram : new String[] { " a", " ap", " c", " co", " i", " io", " 2", " 2.", " 6", " x" }) {
+            assertTrue(gram, postings.has(gram));
+        }
+        for (final String gram : new String[] { " p", " pa", " o", " -i", " .6", " -" }) {
+            assertFalse(gram, postings.has(gram));
+        }
+        assertTrue(postings.has("s-i"));
+        assertTrue(postings.has("2.6"));
+    }
+
+    @Test
+    public void testGramsDoNotSplitSurrogatePairs() throws Exception {
+        final ComponentSearchIndex searchIndex = new ComponentSearchIndex();
+        searchIndex.add(0, createComponent("a\ud83d\ude00bc", "\ud835\udc00\ud835\udc01", "\ud83d\ude00"));
+
+        final JsonObject postings = writePostings(searchIndex);
+        for (final Map.Entry<String, JsonElement> posting : postings.entrySet()) {
+            final String gram = posting.getKey();
+            assertFalse(gram, gram.codePoints().anyMatch(codePoint -> Character.getType(codePoint) == Character.SURROGATE));
+        }
+        assertTrue(postings.has("a\ud83d\ude00b"));
+        assertTrue(postings.has("\ud83d\ude00bc"));
+        // mathematical bold letters are letters, so a word starts at the first of them
+        assertTrue(postings.has(" \ud835\udc00"));
+        assertTrue(postings.has(" \ud835\udc00\ud835\udc01"));
+        assertNull(postings.get(" \ud83d\ude00"));
+    }
+
+    private JsonObject writePostings(final ComponentSearchIndex searchIndex) throws IOException {
+        final StringWriter json = new StringWriter();
+        try (JsonWriter jsonWriter = new JsonWriter(json)) {
+            searchIndex.write(jsonWriter);
+        }
+        final JsonObject written = new JsonParser().parse(json.toString()).getAsJsonObject();
+        assertEquals(ComponentSearchIndex.GRAM_LENGTH, written.get("gramLength").getAsInt());
+        final JsonObject postings = written.getAsJsonObject("postings");
+        assertEquals(searchIndex.getGramCount(), postings.size());
+        return postings;
+    }
+
+    /**
+     * Decodes a posting list the way the report script does.
+     */
+    private List<Integer> decode(final String encoded) {
+        final List<Integer> positions = new ArrayList<>();
+        int position = -1;
+        int gap = 0;
+        for (final char digit : encoded.toCharArray()) {
+            final int finalValue = ComponentSearchIndex.FINAL_DIGITS.indexOf(digit);
+            if (finalValue < 0) {
+                gap = gap * 32 + ComponentSearchIndex.CONTINUATION_DIGITS.indexOf(digit);
+            } else {
+                position += gap * 32 + finalValue;
+                positions.add(position);
+                gap = 0;
+            }
+        }
+        return positions;
+    }
+
+}
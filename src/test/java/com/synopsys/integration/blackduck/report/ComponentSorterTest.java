@@ -0,0 +1,76 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createRandomComponents;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+
+public class ComponentSorterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSortedOnDiskMatchesSortedInMemory() throws Exception {
+        final File runDirectory = folder.newFolder();
+        final Random random = new Random(42);
+        final List<BomComponent> components = createRandomComponents(random, "component", 1000);
+        for (final BomComponent component : components) {
+            // few distinct names so that many components compare as equal and only their original order tells them apart
+            component.setComponentName(random.nextInt(10) == 0 ? null : "component " + random.nextInt(20));
+        }
+
+        final ComponentSorter inMemorySorter = new ComponentSorter();
+        final ComponentSorter onDiskSorter = new ComponentSorter(ComponentSorter.RISK_THEN_NAME, 64, runDirectory);
+        final List<String> sortedInMemory = sort(inMemorySorter, components, true);
+        final List<String> sortedOnDisk = sort(onDiskSorter, components, false);
+
+        assertEquals(components.size(), sortedInMemory.size());
+        assertEquals(sortedInMemory, sortedOnDisk);
+        assertEquals(0, runDirectory.list().length);
+    }
+
+    private List<String> sort(final ComponentSorter sorter, final List<BomComponent> components, final boolean expectedInMemory) throws Exception {
+        final List<String> keys = new ArrayList<>();
+        try (SortedComponents sortedComponents = sorter.sort(components)) {
+            assertEquals(expectedInMemory, sortedComponents.isSortedInMemory());
+            for (final BomComponent component : sortedComponents) {
+                keys.add(component.getComponentName() + "/" + component.getComponentURL());
+            }
+        }
+        return keys;
+    }
+
+}
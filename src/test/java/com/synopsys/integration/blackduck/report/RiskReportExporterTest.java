@@ -0,0 +1,173 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.blackduck.report.api.PolicyRule;
+import com.synopsys.integration.blackduck.report.api.ReportData;
+
+public class RiskReportExporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEveryFormatHasARowPerComponent() throws Exception {
+        final ReportData reportData = new ReportData();
+        reportData.setProjectName("project");
+        final List<BomComponent> components = new ArrayList<>();
+        final BomComponent riskyComponent = new BomComponent();
+        riskyComponent.setComponentName("risky, \"quoted\"");
+        riskyComponent.setSecurityRiskMediumCount(2);
+        riskyComponent.setSecurityRiskLowCount(1);
+        components.add(riskyComponent);
+        components.add(null);
+        components.add(new BomComponent());
+        reportData.setComponents(components);
+
+        final File outputDirectory = folder.newFolder();
+        new RiskReportExporter().exportFiles(outputDirectory, reportData);
+
+        final List<String> ndjsonRows = FileUtils.readLines(new File(outputDirectory, RiskReportExporter.Format.NDJSON.getFileName()), StandardCharsets.UTF_8);
+        assertEquals(2, ndjsonRows.size());
+        final JsonObject riskyRow = new JsonParser().parse(ndjsonRows.get(0)).getAsJsonObject();
+        assertEquals("risky, \"quoted\"", riskyRow.get("componentName").getAsString());
+        assertEquals("MEDIUM", riskyRow.get("securityRisk").getAsString());
+        assertEquals("NONE", riskyRow.get("licenseRisk").getAsString());
+
+        final List<String> csvRows = FileUtils.readLines(new File(outputDirectory, RiskReportExporter.Format.CSV.getFileName()), StandardCharsets.UTF_8);
+        assertEquals(3, csvRows.size());
+        assertEquals("project,,\"risky, \"\"quoted\"\"\",,,,,MEDIUM,NONE,NONE,0,2,1,0,0,0,0,0,0,,", csvRows.get(1));
+
+        final JsonObject summary = new JsonParser().parse(FileUtils.readFileToString(new File(outputDirectory, RiskReportExporter.SUMMARY_FILE_NAME), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+        assertEquals(2, summary.get("exportedComponents").getAsInt());
+        assertEquals(1, summary.get("vulnerabilityRiskMediumCount").getAsInt());
+    }
+
+    @Test
+    public void testEveryFormatIsWrittenToAZip() throws Exception {
+        final ReportData reportData = new ReportData();
+        reportData.setProjectName("project");
+        final List<BomComponent> components = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            final BomComponent component = new BomComponent();
+            component.setComponentName("component " + i);
+            components.add(component);
+        }
+        reportData.setComponents(components);
+
+        final ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipBytes)) {
+            new RiskReportExporter().export(new ZipReportSink(zipOutputStream), reportData);
+        }
+
+        final Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zipBytes.toByteArray()))) {
+            for (ZipEntry entry = zipInputStream.getNextEntry(); entry != null; entry = zipInputStream.getNextEntry()) {
+                entries.put(entry.getName(), IOUtils.toString(zipInputStream, StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(Arrays.asList(RiskReportExporter.Format.NDJSON.getFileName(), RiskReportExporter.Format.CSV.getFileName(), RiskReportExporter.SUMMARY_FILE_NAME),
+                new ArrayList<>(entries.keySet()));
+
+        final String[] ndjsonRows = entries.get(RiskReportExporter.Format.NDJSON.getFileName()).split("\n");
+        assertEquals(3000, ndjsonRows.length);
+        assertEquals("component 2999", new JsonParser().parse(ndjsonRows[2999]).getAsJsonObject().get("componentName").getAsString());
+
+        final String[] csvRows = entries.get(RiskReportExporter.Format.CSV.getFileName()).split("\r\n");
+        assertEquals(3001, csvRows.length);
+        assertTrue(csvRows[0].startsWith("projectName,projectVersion,componentName,"));
+        assertTrue(csvRows[3000].startsWith("project,,component 2999,"));
+
+        final JsonObject summary = new JsonParser().parse(entries.get(RiskReportExporter.SUMMARY_FILE_NAME)).getAsJsonObject();
+        assertEquals(3000, summary.get("exportedComponents").getAsInt());
+    }
+
+    @Test
+    public void testNullPolicyRulesAreSkipped() throws Exception {
+        final PolicyRule rule = new PolicyRule();
+        rule.setName("No copyleft");
+        final BomComponent component = new BomComponent();
+        component.setComponentName("component");
+        component.setPolicyRulesViolated(new ArrayList<>(Arrays.asList(null, rule, null)));
+        final ReportData reportData = new ReportData();
+        reportData.setComponents(new ArrayList<>(Arrays.asList(component)));
+
+        final File outputDirectory = folder.newFolder();
+        new RiskReportExporter().exportFiles(outputDirectory, reportData);
+
+        final List<String> ndjsonRows = FileUtils.readLines(new File(outputDirectory, RiskReportExporter.Format.NDJSON.getFileName()), StandardCharsets.UTF_8);
+        assertEquals(1, ndjsonRows.size());
+        final JsonArray policyRules = new JsonParser().parse(ndjsonRows.get(0)).getAsJsonObject().getAsJsonArray("policyRulesViolated");
+        assertEquals(1, policyRules.size());
+        assertEquals("No copyleft", policyRules.get(0).getAsString());
+
+        final JsonObject summary = new JsonParser().parse(FileUtils.readFileToString(new File(outputDirectory, RiskReportExporter.SUMMARY_FILE_NAME), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+        assertEquals(1, summary.getAsJsonArray("policyRuleViolations").size());
+    }
+
+    @Test
+    public void testReportDataWithoutComponentsIsExported() throws Exception {
+        final File outputDirectory = folder.newFolder();
+        new RiskReportExporter().exportFiles(outputDirectory, new ReportData());
+
+        assertEquals("", FileUtils.readFileToString(new File(outputDirectory, RiskReportExporter.Format.NDJSON.getFileName()), StandardCharsets.UTF_8));
+        final List<String> csvRows = FileUtils.readLines(new File(outputDirectory, RiskReportExporter.Format.CSV.getFileName()), StandardCharsets.UTF_8);
+        assertEquals(1, csvRows.size());
+
+        final JsonObject summary = new JsonParser().parse(FileUtils.readFileToString(new File(outputDirectory, RiskReportExporter.SUMMARY_FILE_NAME), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+        assertEquals(0, summary.get("exportedComponents").getAsInt());
+        assertEquals(0, summary.getAsJsonArray("licenseCounts").size());
+        assertEquals(0, summary.getAsJsonArray("policyRuleViolations").size());
+    }
+
+}
@@ -0,0 +1,180 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.blackduck.report.api.ReportData;
+import com.synopsys.integration.blackduck.report.exception.RiskReportException;
+
+public class RiskReportFuturesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testErrorCompletesTheFuture() {
+        final StackOverflowError error = new StackOverflowError();
+        final CompletableFuture<Object> future = RiskReportFutures.supplyCancellable(Runnable::run, cancelled -> {
+            throw error;
+        });
+
+        try {
+            future.join();
+            fail("The future completed normally.");
+        } catch (final CompletionException e) {
+            assertSame(error, e.getCause());
+        }
+    }
+
+    @Test
+    public void testCancelledHtmlReportStopsBetweenComponents() throws Exception {
+        final List<Runnable> tasks = new ArrayList<>();
+        final AtomicReference<CompletableFuture<File>> futureReference = new AtomicReference<>();
+        final ReportData reportData = new ReportData();
+        reportData.setComponents(new CancellingComponents(futureReference, 100, 10));
+
+        final RiskReportWriter writer = new RiskReportWriter();
+        final CompletableFuture<File> future = writer.createHtmlReportFilesAsync(folder.newFolder(), reportData, tasks::add);
+        futureReference.set(future);
+        final AtomicReference<Throwable> taskFailure = new AtomicReference<>();
+        future.whenComplete((file, failure) -> taskFailure.set(failure));
+        tasks.get(0).run();
+
+        assertTrue(future.isCancelled());
+        assertTrue(taskFailure.get() instanceof CancellationException);
+        try {
+            future.join();
+            fail("The cancelled future completed normally.");
+        } catch (final CancellationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCancelledHtmlReportLeavesNoFiles() throws Exception {
+        final List<Runnable> tasks = new ArrayList<>();
+        final AtomicReference<CompletableFuture<File>> futureReference = new AtomicReference<>();
+        final ReportData reportData = new ReportData();
+        reportData.setComponents(new CancellingComponents(futureReference, 100, 10));
+        final File outputDirectory = folder.newFolder();
+        final File otherFile = new File(outputDirectory, "js/other.js");
+        FileUtils.write(otherFile, "other", StandardCharsets.UTF_8);
+
+        final CompletableFuture<File> future = new RiskReportWriter().createHtmlReportFilesAsync(outputDirectory, reportData, tasks::add);
+        futureReference.set(future);
+        tasks.get(0).run();
+
+        assertTrue(future.isCancelled());
+        // the files that were there before stay, the report files and the directories only they were in are gone
+        assertEquals(Arrays.asList("js"), Arrays.asList(outputDirectory.list()));
+        assertEquals(Arrays.asList("other.js"), Arrays.asList(otherFile.getParentFile().list()));
+    }
+
+    @Test
+    public void testCancellationIsReportedByTheTask() throws Exception {
+        final AtomicReference<CompletableFuture<String>> futureReference = new AtomicReference<>();
+        final AtomicReference<RiskReportException> taskException = new AtomicReference<>();
+        final List<Runnable> tasks = new ArrayList<>();
+        final CompletableFuture<String> future = RiskReportFutures.supplyCancellable(tasks::add, cancelled -> {
+            futureReference.get().cancel(false);
+            try {
+                RiskReportFutures.checkCancelled(cancelled);
+            } catch (final RiskReportException e) {
+                taskException.set(e);
+                throw e;
+            }
+            return "finished";
+        });
+        futureReference.set(future);
+        tasks.get(0).run();
+
+        assertTrue(future.isCancelled());
+        assertEquals("The report was cancelled.", taskException.get().getMessage());
+    }
+
+    /**
+     * Cancels the future once the given number of components have been read after it was set, like a user cancelling a report half way.
+     */
+    static class CancellingComponents extends ArrayList<BomComponent> {
+        private final AtomicReference<? extends CompletableFuture<?>> futureReference;
+
+        private final int cancelAfter;
+
+        CancellingComponents(final AtomicReference<? extends CompletableFuture<?>> futureReference, final int count, final int cancelAfter) {
+            this.futureReference = futureReference;
+            this.cancelAfter = cancelAfter;
+            for (int i = 0; i < count; i++) {
+                final BomComponent component = new BomComponent();
+                component.setComponentName("component " + i);
+                add(component);
+            }
+        }
+
+        @Override
+        public Iterator<BomComponent> iterator() {
+            final Iterator<BomComponent> components = super.iterator();
+            return new Iterator<BomComponent>() {
+                private int readCount;
+
+                @Override
+                public boolean hasNext() {
+                    return components.hasNext();
+                }
+
+                @Override
+                public BomComponent next() {
+                    final CompletableFuture<?> future = futureReference.get();
+                    if (future != null && ++readCount == cancelAfter) {
+                        future.cancel(false);
+                    }
+                    assertFalse("A component was read after the report was cancelled.", future != null && readCount > cancelAfter + 1);
+                    return components.next();
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,248 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createComponent;
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createReportData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.blackduck.report.api.ComponentRiskScore;
+import com.synopsys.integration.blackduck.report.api.PolicyRule;
+import com.synopsys.integration.blackduck.report.api.ReportData;
+import com.synopsys.integration.blackduck.report.exception.RiskReportException;
+import com.synopsys.integration.blackduck.report.pdf.PdfExecutiveSummary;
+import com.synopsys.integration.blackduck.report.pdf.RiskReportPdfWriter;
+import com.synopsys.integration.log.LogLevel;
+import com.synopsys.integration.log.PrintStreamIntLogger;
+
+public class RiskReportPdfWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFailedReportWritesNothingToTheStream() throws Exception {
+        final FailingComponents components = new FailingComponents(100, 10);
+        final ReportData reportData = createReportData(components);
+        components.failing = true;
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            createWriter().createPDFReport(outputStream, reportData);
+            fail("The report was written.");
+        } catch (final RiskReportException e) {
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+        }
+        assertEquals(0, outputStream.size());
+    }
+
+    @Test
+    public void testCompletedReportIsWrittenToTheStream() throws Exception {
+        final ReportData reportData = createReportData(new FailingComponents(10, 10));
+
+        final boolean[] closed = new boolean[1];
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        createWriter().createPDFReport(outputStream, reportData);
+        assertTrue(outputStream.toString("ISO-8859-1").startsWith("%PDF-"));
+        assertFalse("The caller's stream was closed.", closed[0]);
+    }
+
+    @Test
+    public void testCancelledReportLeavesNoFile() throws Exception {
+        final AtomicReference<CompletableFuture<File>> futureReference = new AtomicReference<>();
+        final ReportData reportData = createReportData(new RiskReportFuturesTest.CancellingComponents(futureReference, 100, 10));
+        final File outputDirectory = folder.newFolder();
+
+        final List<Runnable> tasks = new ArrayList<>();
+        final CompletableFuture<File> future = createWriter().createPDFReportFileAsync(outputDirectory, reportData, tasks::add);
+        futureReference.set(future);
+        tasks.get(0).run();
+
+        try {
+            future.join();
+            fail("The cancelled future completed normally.");
+        } catch (final CancellationException e) {
+            // expected
+        }
+        assertEquals(0, outputDirectory.list().length);
+    }
+
+    @Test
+    public void testExecutiveSummaryFooterCountsTheComponentsLeftOut() throws Exception {
+        final List<BomComponent> components = new FailingComponents(30, 30);
+        components.add(7, null);
+        final RiskReportPdfWriter writer = createWriter();
+        writer.setExecutiveSummary(new PdfExecutiveSummary(5, ComponentRiskScore.DEFAULT, null));
+
+        final String text = writeText(writer, createReportData(components));
+        assertTrue(text, text.contains("Riskiest 5 of 30 BOM Entries"));
+        assertTrue(text, text.contains("+25 more in the full report"));
+    }
+
+    @Test
+    public void testExecutiveSummaryWithoutMoreComponentsHasNoFooter() throws Exception {
+        final RiskReportPdfWriter writer = createWriter();
+        writer.setExecutiveSummary(new PdfExecutiveSummary(5, ComponentRiskScore.DEFAULT, null));
+
+        final String text = writeText(writer, createReportData(new FailingComponents(5, 5)));
+        assertFalse(text, text.contains("more in the full report"));
+    }
+
+    @Test
+    public void testPolicyViolationsSkipBlankComponentNames() throws Exception {
+        final PolicyRule rule = new PolicyRule();
+        rule.setName("No copyleft");
+        final List<BomComponent> components = new ArrayList<>();
+        for (final String[] nameAndVersion : new String[][] { { "alpha", "1.0" }, { null, null }, { null, "2.0" }, { " ", null }, { "beta", null } }) {
+            final BomComponent component = createComponent(nameAndVersion[0], nameAndVersion[1], null);
+            component.setPolicyRulesViolated(new ArrayList<>(Collections.singletonList(rule)));
+            components.add(component);
+        }
+
+        final String text = writeText(createWriter(), createReportData(components));
+        assertTrue(text, text.contains("No copyleft (5)"));
+        assertTrue(text, text.contains(System.lineSeparator() + "alpha 1.0, 2.0, beta" + System.lineSeparator()));
+    }
+
+    @Test
+    public void testComponentTableHeaderStartsEveryPageOfTheTable() throws Exception {
+        // the license table grows by one row per license, which walks the component table header across the bottom of the first page
+        for (int licenseCount = 25; licenseCount <= 50; licenseCount++) {
+            final List<BomComponent> components = new FailingComponents(licenseCount + 60, licenseCount + 60);
+            for (int i = 0; i < licenseCount; i++) {
+                components.get(i).setLicense("license " + i);
+            }
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            createWriter().createPDFReport(outputStream, createReportData(components));
+
+            try (PDDocument document = PDDocument.load(outputStream.toByteArray())) {
+                final Map<Integer, List<Float>> headersByPage = new TreeMap<>();
+                final Map<Integer, List<Float>> rowsByPage = new TreeMap<>();
+                final PDFTextStripper stripper = new PDFTextStripper() {
+                    @Override
+                    protected void writeString(final String text, final List<TextPosition> textPositions) throws IOException {
+                        if (text.equals("Component")) {
+                            headersByPage.computeIfAbsent(getCurrentPageNo(), page -> new ArrayList<>()).add(textPositions.get(0).getYDirAdj());
+                        } else if (text.matches("component \\d+")) {
+                            rowsByPage.computeIfAbsent(getCurrentPageNo(), page -> new ArrayList<>()).add(textPositions.get(0).getYDirAdj());
+                        }
+                        super.writeString(text, textPositions);
+                    }
+                };
+                stripper.getText(document);
+
+                final String message = licenseCount + " licenses";
+                assertTrue(message, rowsByPage.size() > 1);
+                assertEquals(message, rowsByPage.keySet(), headersByPage.keySet());
+                for (final Map.Entry<Integer, List<Float>> rows : rowsByPage.entrySet()) {
+                    final List<Float> headers = headersByPage.get(rows.getKey());
+                    final float pageHeight = document.getPage(rows.getKey() - 1).getMediaBox().getHeight();
+                    assertEquals(message, 1, headers.size());
+                    assertTrue(message, headers.get(0) < Collections.min(rows.getValue()));
+                    assertTrue(message, Collections.max(rows.getValue()) < pageHeight - 10);
+                }
+            }
+        }
+    }
+
+    private String writeText(final RiskReportPdfWriter writer, final ReportData reportData) throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writer.createPDFReport(outputStream, reportData);
+        try (PDDocument document = PDDocument.load(outputStream.toByteArray())) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+
+    private RiskReportPdfWriter createWriter() {
+        return new RiskReportPdfWriter(new PrintStreamIntLogger(System.out, LogLevel.WARN));
+    }
+
+    /**
+     * Fails with an {@link UncheckedIOException} after the given number of components once failing, like a lazily loaded component list losing its connection.
+     */
+    private static class FailingComponents extends ArrayList<BomComponent> {
+        private final int failAfter;
+
+        private boolean failing;
+
+        FailingComponents(final int count, final int failAfter) {
+            this.failAfter = failAfter;
+            for (int i = 0; i < count; i++) {
+                add(createComponent("component " + i, "1." + i, null));
+            }
+        }
+
+        @Override
+        public Iterator<BomComponent> iterator() {
+            final Iterator<BomComponent> components = super.iterator();
+            return new Iterator<BomComponent>() {
+                private int readCount;
+
+                @Override
+                public boolean hasNext() {
+                    return components.hasNext();
+                }
+
+                @Override
+                public BomComponent next() {
+                    if (failing && readCount++ == failAfter) {
+                        throw new UncheckedIOException(new IOException("The component list was closed."));
+                    }
+                    return components.next();
+                }
+            };
+        }
+    }
+
+}
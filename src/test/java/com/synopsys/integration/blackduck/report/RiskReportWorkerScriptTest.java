@@ -0,0 +1,156 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createComponent;
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createReportData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assume.assumeNotNull;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.blackduck.report.api.PolicyRule;
+import com.synopsys.integration.blackduck.report.api.ReportData;
+
+/**
+ * Runs the report worker script in the JavaScript engine of the JVM, the tests are skipped on a JVM without one.
+ */
+public class RiskReportWorkerScriptTest {
+    private static final String WORKER_SCRIPT = "/riskreport/web/js/HubRiskReportWorker.js";
+
+    // loads the report the way the page does and keeps every message the worker posts
+    private static final String LOAD_SCRIPT = "var messages = [];"
+            + "var scope = { postMessage: function (message) { messages.push(message); } };"
+            + "riskReportWorker(scope);"
+            + "scope.onmessage({ data: { type: 'load', json: json } });"
+            + "var rows = [];"
+            + "for (var i = 0; i < messages.length; i++) { if (messages[i].type == 'rows') { rows = rows.concat(messages[i].rows); } }";
+
+    private ScriptEngine engine;
+
+    @Before
+    public void loadWorkerScript() throws Exception {
+        engine = new ScriptEngineManager().getEngineByName("javascript");
+        assumeNotNull(engine);
+        try (InputStream scriptStream = getClass().getResourceAsStream(WORKER_SCRIPT)) {
+            engine.eval(new InputStreamReader(scriptStream, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testVersionsSortInVersionOrder() throws Exception {
+        final List<String> versions = Arrays.asList("1.10", "2.0.1", "1.2.3", "1.9", "2.0.0", "1.2.10", "2.0");
+        final List<BomComponent> components = new ArrayList<>();
+        for (final String version : versions) {
+            components.add(createComponent("component", version, null));
+        }
+        load(components);
+
+        // sorttable guesses the column type from the first key, then compares the keys as text
+        final String versionKeys = (String) engine.eval("var keys = []; for (var i = 0; i < rows.length; i++) { keys.push(rows[i].sortKeys[2]); } keys.join('\\n')");
+        final List<String> sortedVersions = new ArrayList<>();
+        final List<String> sortedKeys = new ArrayList<>(Arrays.asList(versionKeys.split("\n")));
+        for (final String versionKey : sortedKeys) {
+            assertFalse(versionKey, versionKey.matches("^-?[\\u00a3$\\u00a4]?[\\d,.]+%?$"));
+        }
+        sortedKeys.sort(null);
+        for (final String versionKey : sortedKeys) {
+            sortedVersions.add(versions.get(Arrays.asList(versionKeys.split("\n")).indexOf(versionKey)));
+        }
+        assertEquals(Arrays.asList("1.2.3", "1.2.10", "1.9", "1.10", "2.0", "2.0.0", "2.0.1"), sortedVersions);
+    }
+
+    @Test
+    public void testPolicyViolationsSkipBlankComponentNames() throws Exception {
+        final PolicyRule rule = new PolicyRule();
+        rule.setName("No copyleft");
+        final List<BomComponent> components = new ArrayList<>();
+        for (final String[] nameAndVersion : new String[][] { { "alpha", "1.0" }, { null, null }, { null, "2.0" }, { " ", null }, { "beta", null } }) {
+            final BomComponent component = createComponent(nameAndVersion[0], nameAndVersion[1], null);
+            component.setPolicyRulesViolated(new ArrayList<>(Collections.singletonList(rule)));
+            components.add(component);
+        }
+        load(components);
+
+        final String componentNames = (String) engine.eval("messages[0].report.policyRuleViolations[0].componentNames.join(', ')");
+        assertEquals("alpha 1.0, 2.0, beta", componentNames);
+    }
+
+    @Test
+    public void testShortQueriesStartingWithPunctuationSearchEveryComponent() throws Exception {
+        final List<BomComponent> components = new ArrayList<>();
+        for (final String name : new String[] { "foo-api", "bar", "-alpha", "baz api" }) {
+            components.add(createComponent(name, null, null));
+        }
+        load(components);
+
+        assertEquals("0,2", search("-a"));
+        assertEquals("0,3", search("ap"));
+        assertEquals("0,2,3", search("a"));
+        assertEquals("", search("@"));
+        assertEquals("0", search("o-a"));
+    }
+
+    private String search(final String query) throws Exception {
+        engine.put("query", query);
+        return (String) engine.eval("scope.onmessage({ data: { type: 'search', sequence: 1, query: query } }); String(messages[messages.length - 1].matches)");
+    }
+
+    private void load(final List<BomComponent> components) throws Exception {
+        final ReportData reportData = createReportData(components);
+        // the writer indexes the violations before it writes the report data
+        reportData.getPolicyRuleViolations();
+        final ComponentSearchIndex searchIndex = new ComponentSearchIndex();
+        for (int position = 0; position < components.size(); position++) {
+            searchIndex.add(position, components.get(position));
+        }
+        final StringWriter searchIndexJson = new StringWriter();
+        searchIndex.write(new JsonWriter(searchIndexJson));
+
+        final JsonObject json = new Gson().toJsonTree(reportData).getAsJsonObject();
+        json.add("searchIndex", new JsonParser().parse(searchIndexJson.toString()));
+        engine.put("json", json.toString());
+        engine.eval(LOAD_SCRIPT);
+    }
+
+}
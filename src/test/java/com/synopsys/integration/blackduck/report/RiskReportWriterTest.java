@@ -0,0 +1,92 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.Gson;
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.blackduck.report.api.ReportData;
+
+public class RiskReportWriterTest {
+    private static final String UNSAFE_TEXT = "</script><script>alert('&')</script> \u2028 \u2029 <!--";
+
+    private static final String DATA_BLOCK_START = "<script type=\"application/json\" id=\"riskReportData\">";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReportDataCanNotEndTheScriptBlock() throws Exception {
+        assertScriptSafe(new RiskReportWriter());
+    }
+
+    @Test
+    public void testStreamedReportDataCanNotEndTheScriptBlock() throws Exception {
+        final RiskReportWriter writer = new RiskReportWriter();
+        writer.setComponentSorter(new ComponentSorter());
+        writer.setSearchIndexEnabled(true);
+        assertScriptSafe(writer);
+    }
+
+    private void assertScriptSafe(final RiskReportWriter writer) throws Exception {
+        final ReportData reportData = new ReportData();
+        reportData.setProjectName(UNSAFE_TEXT);
+        final List<BomComponent> components = new ArrayList<>();
+        final BomComponent component = new BomComponent();
+        component.setComponentName(UNSAFE_TEXT);
+        component.setLicense(UNSAFE_TEXT);
+        components.add(component);
+        reportData.setComponents(components);
+
+        final File outputDirectory = folder.newFolder();
+        writer.createHtmlReportFiles(outputDirectory, reportData);
+        final File htmlFile = new File(outputDirectory, RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME);
+        final String html = FileUtils.readFileToString(htmlFile, StandardCharsets.UTF_8);
+        final int dataStart = html.indexOf(DATA_BLOCK_START) + DATA_BLOCK_START.length();
+        final String data = html.substring(dataStart, html.indexOf("</script>", dataStart));
+
+        assertFalse(data.contains("<"));
+        assertFalse(data.contains(">"));
+        assertFalse(data.contains("&"));
+        assertFalse(data.contains("\u2028"));
+        assertFalse(data.contains("\u2029"));
+        final ReportData parsedReportData = new Gson().fromJson(data, ReportData.class);
+        assertEquals(UNSAFE_TEXT, parsedReportData.getProjectName());
+        assertEquals(UNSAFE_TEXT, parsedReportData.getComponents().get(0).getComponentName());
+        assertEquals(UNSAFE_TEXT, parsedReportData.getComponents().get(0).getLicense());
+    }
+
+}
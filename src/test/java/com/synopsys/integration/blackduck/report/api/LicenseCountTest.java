@@ -0,0 +1,107 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createLicenseRiskComponent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LicenseCountTest {
+
+    @Test
+    public void testHistogramGroupsComponentsByLicense() {
+        final List<BomComponent> components = Arrays.asList(
+                createLicenseRiskComponent("MIT", 0, 0, 1),
+                createLicenseRiskComponent("GPL", 1, 0, 0),
+                null,
+                createLicenseRiskComponent("MIT", 0, 2, 0),
+                createLicenseRiskComponent("GPL", 3, 1, 0),
+                createLicenseRiskComponent("MIT", 0, 0, 0));
+
+        final List<LicenseCount> licenseCounts = LicenseCount.histogram(components);
+
+        assertEquals(2, licenseCounts.size());
+        assertLicenseCount(licenseCounts.get(0), "MIT", 3, 0, 1, 1);
+        assertLicenseCount(licenseCounts.get(1), "GPL", 2, 2, 0, 0);
+    }
+
+    @Test
+    public void testHistogramKeepsNullAndBlankLicensesApart() {
+        final List<BomComponent> components = Arrays.asList(
+                createLicenseRiskComponent(null, 0, 0, 0),
+                createLicenseRiskComponent("", 0, 0, 0),
+                createLicenseRiskComponent(" ", 0, 0, 0),
+                createLicenseRiskComponent(null, 1, 0, 0),
+                createLicenseRiskComponent("", 0, 0, 0),
+                createLicenseRiskComponent(null, 0, 0, 0));
+
+        final List<LicenseCount> licenseCounts = LicenseCount.histogram(components);
+
+        assertEquals(3, licenseCounts.size());
+        assertLicenseCount(licenseCounts.get(0), null, 3, 1, 0, 0);
+        assertLicenseCount(licenseCounts.get(1), "", 2, 0, 0, 0);
+        assertLicenseCount(licenseCounts.get(2), " ", 1, 0, 0, 0);
+    }
+
+    @Test
+    public void testHistogramOrdersByCountThenLicenseWithNullLast() {
+        final List<BomComponent> components = new ArrayList<>();
+        for (final String license : new String[] { "b", null, "c", "a", "b", null, "c", "a", "d" }) {
+            components.add(createLicenseRiskComponent(license, 0, 0, 0));
+        }
+
+        final List<String> licenses = new ArrayList<>();
+        for (final LicenseCount licenseCount : LicenseCount.histogram(components)) {
+            licenses.add(licenseCount.getLicense());
+        }
+
+        assertEquals(Arrays.asList("a", "b", "c", null, "d"), licenses);
+    }
+
+    @Test
+    public void testReportDataWithoutComponentsHasNoLicenseCounts() {
+        final ReportData reportData = new ReportData();
+        assertTrue(reportData.getLicenseCounts().isEmpty());
+
+        reportData.setComponents(new ArrayList<>());
+        assertTrue(reportData.getLicenseCounts().isEmpty());
+    }
+
+    private void assertLicenseCount(final LicenseCount licenseCount, final String license, final int componentCount, final int highRiskCount, final int mediumRiskCount,
+            final int lowRiskCount) {
+        assertEquals(license, licenseCount.getLicense());
+        assertEquals(componentCount, licenseCount.getComponentCount());
+        assertEquals(highRiskCount, licenseCount.getHighRiskCount());
+        assertEquals(mediumRiskCount, licenseCount.getMediumRiskCount());
+        assertEquals(lowRiskCount, licenseCount.getLowRiskCount());
+        assertEquals(componentCount - highRiskCount - mediumRiskCount - lowRiskCount, licenseCount.getNoRiskCount());
+    }
+
+}
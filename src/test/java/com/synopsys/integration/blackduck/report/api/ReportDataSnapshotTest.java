@@ -0,0 +1,159 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.Gson;
+
+public class ReportDataSnapshotTest {
+    private final Gson gson = new Gson();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReportDataReadFromJsonRoundTrips() throws Exception {
+        final String json;
+        try (InputStream jsonStream = getClass().getResourceAsStream("/TestReportData.json")) {
+            json = IOUtils.toString(jsonStream, StandardCharsets.UTF_8);
+        }
+        assertRoundTrips(gson.fromJson(json, ReportData.class));
+    }
+
+    @Test
+    public void testUnusualComponentsRoundTrip() throws Exception {
+        final BomComponent component = new BomComponent();
+        component.setComponentName("");
+        component.setLicense("Lizenz \u00fc \ud83d\ude00");
+        component.setSecurityRiskLowCount(-3);
+        component.setOperationalRiskHighCount(Integer.MAX_VALUE);
+        component.setPolicyRulesViolated(new ArrayList<>(Arrays.asList(null, new PolicyRule())));
+        final BomComponent componentWithoutRules = new BomComponent();
+        componentWithoutRules.setPolicyRulesViolated(new ArrayList<>());
+        final List<BomComponent> components = new ArrayList<>(Arrays.asList(component, null, componentWithoutRules, new BomComponent()));
+        final ReportData reportData = new ReportData();
+        reportData.setProjectName("project");
+        reportData.setComponents(components);
+
+        assertRoundTrips(reportData);
+        assertRoundTrips(new ReportData());
+    }
+
+    @Test
+    public void testComponentsAreReadOnDemand() throws Exception {
+        final ReportData reportData = new ReportData();
+        final List<BomComponent> components = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final BomComponent component = new BomComponent();
+            component.setComponentName("component " + i % 10);
+            component.setSecurityRiskHighCount(i);
+            components.add(component);
+        }
+        reportData.setComponents(components);
+        final File snapshotFile = folder.newFile();
+        ReportDataSnapshot.write(snapshotFile, reportData);
+
+        try (ReportDataSnapshot snapshot = ReportDataSnapshot.open(snapshotFile)) {
+            assertEquals(1000, snapshot.getComponentCount());
+            assertEquals("component 7", snapshot.getComponent(567).getComponentName());
+            assertEquals(567, snapshot.getComponent(567).getSecurityRiskHighCount());
+            assertNull(snapshot.getComponent(567).getPolicyRulesViolated());
+        }
+    }
+
+    @Test
+    public void testTruncatedSnapshotIsRejected() throws Exception {
+        final File snapshotFile = writeSnapshot();
+        final long length = snapshotFile.length();
+        for (final long truncatedLength : new long[] { length / 2, 30, length - 1 - length / 4 }) {
+            final File truncatedFile = folder.newFile();
+            FileUtils.copyFile(snapshotFile, truncatedFile);
+            try (RandomAccessFile file = new RandomAccessFile(truncatedFile, "rw")) {
+                file.setLength(truncatedLength);
+            }
+            assertNotOpened(truncatedFile);
+        }
+    }
+
+    @Test
+    public void testDamagedStringCountIsRejected() throws Exception {
+        final File snapshotFile = writeSnapshot();
+        try (RandomAccessFile file = new RandomAccessFile(snapshotFile, "rw")) {
+            file.seek(12);
+            final int stringTableOffset = file.readInt();
+            file.seek(stringTableOffset);
+            file.writeInt(Integer.MAX_VALUE);
+        }
+        assertNotOpened(snapshotFile);
+    }
+
+    private File writeSnapshot() throws Exception {
+        final ReportData reportData = new ReportData();
+        final List<BomComponent> components = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final BomComponent component = new BomComponent();
+            component.setComponentName("component " + i);
+            components.add(component);
+        }
+        reportData.setComponents(components);
+        final File snapshotFile = folder.newFile();
+        ReportDataSnapshot.write(snapshotFile, reportData);
+        return snapshotFile;
+    }
+
+    private void assertNotOpened(final File snapshotFile) {
+        try (ReportDataSnapshot snapshot = ReportDataSnapshot.open(snapshotFile)) {
+            fail("A damaged snapshot of " + snapshotFile.length() + " bytes was opened.");
+        } catch (final IOException e) {
+            assertEquals("The report data snapshot is truncated or damaged.", e.getMessage());
+        }
+    }
+
+    private void assertRoundTrips(final ReportData reportData) throws Exception {
+        final File snapshotFile = folder.newFile();
+        ReportDataSnapshot.write(snapshotFile, reportData);
+        try (ReportDataSnapshot snapshot = ReportDataSnapshot.open(snapshotFile)) {
+            assertEquals(gson.toJson(reportData), gson.toJson(snapshot.toReportData()));
+        }
+    }
+
+}
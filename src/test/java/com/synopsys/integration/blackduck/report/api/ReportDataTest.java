@@ -0,0 +1,222 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createComponent;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+public class ReportDataTest {
+
+    @Test
+    public void testCoalescedDuplicatesKeepTheHighestCounts() {
+        final BomComponent first = createComponent("name", "1.0", "MIT");
+        first.setSecurityRiskHighCount(1);
+        first.setSecurityRiskLowCount(7);
+        first.setLicenseRiskMediumCount(2);
+        first.setOperationalRiskLowCount(4);
+        final BomComponent second = createComponent("name", "1.0", "MIT");
+        second.setSecurityRiskMediumCount(3);
+        second.setSecurityRiskLowCount(5);
+        second.setOperationalRiskHighCount(1);
+        second.setOperationalRiskLowCount(9);
+
+        final ReportData reportData = new ReportData();
+        reportData.setComponents(Arrays.asList(first, second), true);
+
+        assertEquals(1, reportData.getComponents().size());
+        final BomComponent coalesced = reportData.getComponents().get(0);
+        assertEquals(1, coalesced.getSecurityRiskHighCount());
+        assertEquals(3, coalesced.getSecurityRiskMediumCount());
+        assertEquals(7, coalesced.getSecurityRiskLowCount());
+        assertEquals(2, coalesced.getLicenseRiskMediumCount());
+        assertEquals(1, coalesced.getOperationalRiskHighCount());
+        assertEquals(9, coalesced.getOperationalRiskLowCount());
+        // the caller's components are not changed
+        assertEquals(0, first.getSecurityRiskMediumCount());
+        assertEquals(4, first.getOperationalRiskLowCount());
+
+        assertEquals(1, reportData.getTotalComponents());
+        assertEquals(1, reportData.getVulnerabilityRiskHighCount());
+        assertEquals(0, reportData.getVulnerabilityRiskMediumCount());
+        assertEquals(1, reportData.getLicenseRiskMediumCount());
+        assertEquals(1, reportData.getOperationalRiskHighCount());
+        assertEquals(0, reportData.getOperationalRiskLowCount());
+    }
+
+    @Test
+    public void testCoalescedDuplicatesUnionTheirPolicyRules() {
+        final BomComponent first = createComponent("name", "1.0", "GPL");
+        first.setPolicyStatus("NOT_IN_VIOLATION");
+        first.setPolicyRulesViolated(new ArrayList<>(Arrays.asList(createRule("a"), createRule("b"))));
+        final BomComponent second = createComponent("name", "1.0", "GPL");
+        second.setPolicyStatus("IN_VIOLATION");
+        second.setPolicyRulesViolated(new ArrayList<>(Arrays.asList(createRule("b"), null, createRule("c"))));
+        final BomComponent third = createComponent("name", "1.0", "GPL");
+        third.setPolicyStatus("NOT_IN_VIOLATION");
+        third.setPolicyRulesViolated(new ArrayList<>(Arrays.asList(createRule("d"), createRule("a"))));
+
+        final ReportData reportData = new ReportData();
+        reportData.setComponents(Arrays.asList(first, second, third), true);
+
+        final BomComponent coalesced = reportData.getComponents().get(0);
+        assertEquals(Arrays.asList("a", "b", "c", "d"), ruleNames(coalesced.getPolicyRulesViolated()));
+        assertEquals("IN_VIOLATION", coalesced.getPolicyStatus());
+        assertEquals(Arrays.asList("a", "b"), ruleNames(first.getPolicyRulesViolated()));
+
+        assertEquals(4, reportData.getPolicyRuleViolations().size());
+        for (final PolicyRuleViolations violations : reportData.getPolicyRuleViolations()) {
+            assertArrayEquals(new int[] { 0 }, violations.getComponentIndexes());
+        }
+    }
+
+    @Test
+    public void testCoalesceMatchesNullKeys() {
+        final List<BomComponent> components = Arrays.asList(
+                createComponent(null, null, null),
+                createComponent(null, null, null),
+                createComponent(null, "1.0", null),
+                createComponent("", null, null),
+                null,
+                createComponent(null, "1.0", null),
+                createComponent("name", null, "MIT"),
+                createComponent("name", null, "MIT"),
+                createComponent("name", null, null));
+
+        final ReportData reportData = new ReportData();
+        reportData.setComponents(components, true);
+
+        assertEquals(5, reportData.getTotalComponents());
+        assertNull(reportData.getComponents().get(0).getComponentName());
+        assertEquals("1.0", reportData.getComponents().get(1).getComponentVersion());
+        assertEquals("", reportData.getComponents().get(2).getComponentName());
+        assertEquals("MIT", reportData.getComponents().get(3).getLicense());
+        assertNull(reportData.getComponents().get(4).getLicense());
+    }
+
+    @Test
+    public void testCoalescedCountsMatchAFreshCount() {
+        final Random random = new Random(7);
+        final List<BomComponent> components = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final BomComponent component = createComponent("component " + random.nextInt(300), random.nextBoolean() ? "1.0" : null, "license " + random.nextInt(5));
+            component.setSecurityRiskHighCount(random.nextInt(8) == 0 ? 1 : 0);
+            component.setSecurityRiskMediumCount(random.nextInt(4) == 0 ? 1 : 0);
+            component.setSecurityRiskLowCount(random.nextInt(2));
+            component.setLicenseRiskHighCount(random.nextInt(10) == 0 ? 1 : 0);
+            component.setLicenseRiskLowCount(random.nextInt(3) == 0 ? 1 : 0);
+            component.setOperationalRiskMediumCount(random.nextInt(5) == 0 ? 1 : 0);
+            component.setOperationalRiskLowCount(random.nextInt(2));
+            if (random.nextInt(20) == 0) {
+                component.setPolicyRulesViolated(new ArrayList<>(Arrays.asList(createRule("rule " + random.nextInt(3)))));
+            }
+            components.add(random.nextInt(100) == 0 ? null : component);
+        }
+
+        final ReportData coalesced = new ReportData();
+        coalesced.setComponents(components, true);
+        final ReportData counted = new ReportData();
+        counted.setComponents(coalesced.getComponents());
+
+        assertEquals(counted.getTotalComponents(), coalesced.getTotalComponents());
+        assertEquals(counted.getVulnerabilityRiskHighCount(), coalesced.getVulnerabilityRiskHighCount());
+        assertEquals(counted.getVulnerabilityRiskMediumCount(), coalesced.getVulnerabilityRiskMediumCount());
+        assertEquals(counted.getVulnerabilityRiskLowCount(), coalesced.getVulnerabilityRiskLowCount());
+        assertEquals(counted.getVulnerabilityRiskNoneCount(), coalesced.getVulnerabilityRiskNoneCount());
+        assertEquals(counted.getLicenseRiskHighCount(), coalesced.getLicenseRiskHighCount());
+        assertEquals(counted.getLicenseRiskMediumCount(), coalesced.getLicenseRiskMediumCount());
+        assertEquals(counted.getLicenseRiskLowCount(), coalesced.getLicenseRiskLowCount());
+        assertEquals(counted.getLicenseRiskNoneCount(), coalesced.getLicenseRiskNoneCount());
+        assertEquals(counted.getOperationalRiskHighCount(), coalesced.getOperationalRiskHighCount());
+        assertEquals(counted.getOperationalRiskMediumCount(), coalesced.getOperationalRiskMediumCount());
+        assertEquals(counted.getOperationalRiskLowCount(), coalesced.getOperationalRiskLowCount());
+        assertEquals(counted.getOperationalRiskNoneCount(), coalesced.getOperationalRiskNoneCount());
+
+        assertEquals(counted.getLicenseCounts().size(), coalesced.getLicenseCounts().size());
+        for (int i = 0; i < counted.getLicenseCounts().size(); i++) {
+            final LicenseCount expected = counted.getLicenseCounts().get(i);
+            final LicenseCount actual = coalesced.getLicenseCounts().get(i);
+            assertEquals(expected.getLicense(), actual.getLicense());
+            assertEquals(expected.getComponentCount(), actual.getComponentCount());
+            assertEquals(expected.getHighRiskCount(), actual.getHighRiskCount());
+            assertEquals(expected.getMediumRiskCount(), actual.getMediumRiskCount());
+            assertEquals(expected.getLowRiskCount(), actual.getLowRiskCount());
+        }
+        assertEquals(counted.getPolicyRuleViolations().size(), coalesced.getPolicyRuleViolations().size());
+        for (int i = 0; i < counted.getPolicyRuleViolations().size(); i++) {
+            assertArrayEquals(counted.getPolicyRuleViolations().get(i).getComponentIndexes(), coalesced.getPolicyRuleViolations().get(i).getComponentIndexes());
+        }
+    }
+
+    @Test
+    public void testPolicyRuleIndexOfReportDataReadFromJsonIsBuiltOnce() {
+        final BomComponent component = createComponent("name", "1.0", "MIT");
+        component.setPolicyRulesViolated(new ArrayList<>(Arrays.asList(createRule("a"))));
+        final ReportData written = new ReportData();
+        written.setComponents(Arrays.asList(null, component));
+        final Gson gson = new Gson();
+        final JsonObject json = gson.toJsonTree(written, ReportData.class).getAsJsonObject();
+        json.remove("policyRuleViolations");
+        final ReportData reportData = gson.fromJson(json, ReportData.class);
+
+        final CompletableFuture<List<PolicyRuleViolations>> html = CompletableFuture.supplyAsync(reportData::getPolicyRuleViolations);
+        final CompletableFuture<List<PolicyRuleViolations>> pdf = CompletableFuture.supplyAsync(reportData::getPolicyRuleViolations);
+        assertSame(html.join(), pdf.join());
+        assertArrayEquals(new int[] { 1 }, html.join().get(0).getComponentIndexes());
+    }
+
+    @Test
+    public void testReportDataWithoutComponentsHasNoPolicyRuleViolations() {
+        assertTrue(new ReportData().getPolicyRuleViolations().isEmpty());
+    }
+
+    private PolicyRule createRule(final String name) {
+        final PolicyRule rule = new PolicyRule();
+        rule.setName(name);
+        return rule;
+    }
+
+    private List<String> ruleNames(final List<PolicyRule> rules) {
+        final List<String> names = new ArrayList<>();
+        for (final PolicyRule rule : rules) {
+            names.add(rule.getName());
+        }
+        return names;
+    }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the components and report data the tests share.
+ */
+public final class ReportTestFixtures {
+    private ReportTestFixtures() {
+    }
+
+    public static BomComponent createComponent(final String name, final String version, final String license) {
+        final BomComponent component = new BomComponent();
+        component.setComponentName(name);
+        component.setComponentVersion(version);
+        component.setLicense(license);
+        return component;
+    }
+
+    public static BomComponent createLicenseRiskComponent(final String license, final int highRiskCount, final int mediumRiskCount, final int lowRiskCount) {
+        final BomComponent component = createComponent(null, null, license);
+        component.setLicenseRiskHighCount(highRiskCount);
+        component.setLicenseRiskMediumCount(mediumRiskCount);
+        component.setLicenseRiskLowCount(lowRiskCount);
+        return component;
+    }
+
+    /**
+     * Components with unique names and urls and small random risk counts, so that many of them tie on their risk.
+     */
+    public static List<BomComponent> createRandomComponents(final Random random, final String namePrefix, final int count) {
+        final List<BomComponent> components = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final BomComponent component = createComponent(namePrefix + " " + i, null, null);
+            component.setComponentURL("https://localhost/components/" + i);
+            component.setSecurityRiskHighCount(random.nextInt(3));
+            component.setSecurityRiskMediumCount(random.nextInt(4));
+            component.setLicenseRiskMediumCount(random.nextInt(2));
+            component.setLicenseRiskLowCount(random.nextInt(5));
+            component.setOperationalRiskHighCount(random.nextInt(10) == 0 ? 1 : 0);
+            components.add(component);
+        }
+        return components;
+    }
+
+    public static ReportData createReportData(final List<BomComponent> components) {
+        final ReportData reportData = new ReportData();
+        reportData.setProjectName("project");
+        reportData.setProjectVersion("1.0");
+        reportData.setComponents(components);
+        return reportData;
+    }
+
+}
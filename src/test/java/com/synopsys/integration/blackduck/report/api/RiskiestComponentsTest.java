@@ -0,0 +1,103 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.api;
+
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createRandomComponents;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class RiskiestComponentsTest {
+    private static final ComponentRiskScore RISK_SCORE = ComponentRiskScore.DEFAULT;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void testHeapKeepsTheSameItemsAsAFullSort() {
+        final List<BomComponent> components = createRandomComponents(random, "component", 2000);
+        for (final int limit : new int[] { 0, 1, 7, 100, 1999, 2000, 2500 }) {
+            final RiskiestComponents<BomComponent> riskiestComponents = new RiskiestComponents<>(limit);
+            for (final BomComponent component : components) {
+                riskiestComponents.offer(component, RISK_SCORE.score(component));
+            }
+            assertEquals("limit " + limit, fullSort(components, limit), riskiestComponents.toList());
+        }
+    }
+
+    @Test
+    public void testPortfolioKeepsTheSameComponentsAsAFullSort() {
+        final List<ReportData> reports = new ArrayList<>();
+        final List<BomComponent> allComponents = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final ReportData reportData = new ReportData();
+            reportData.setProjectName("project " + i);
+            final List<BomComponent> components = createRandomComponents(random, "project " + i + " component", 50 + random.nextInt(200));
+            reportData.setComponents(components);
+            reports.add(reportData);
+            allComponents.addAll(components);
+        }
+
+        for (final int limit : new int[] { 1, 25, PortfolioReport.DEFAULT_TOP_COMPONENT_COUNT, allComponents.size() }) {
+            final List<String> expected = names(fullSort(allComponents, limit));
+            assertEquals("sequential, limit " + limit, expected, names(PortfolioReport.aggregate(reports.stream(), limit, RISK_SCORE).getComponents()));
+            assertEquals("parallel, limit " + limit, expected, names(PortfolioReport.aggregate(reports.parallelStream(), limit, RISK_SCORE).getComponents()));
+        }
+    }
+
+    @Test
+    public void testPortfolioComponentsKeepTheirScore() {
+        final ReportData reportData = new ReportData();
+        reportData.setComponents(createRandomComponents(random, "component", 500));
+
+        final PortfolioReport portfolioReport = PortfolioReport.aggregate(Stream.of(reportData), 10, RISK_SCORE);
+        long previousScore = Long.MAX_VALUE;
+        for (final PortfolioComponent component : portfolioReport.getComponents()) {
+            assertEquals(RISK_SCORE.score(component), component.getRiskScore());
+            assertTrue(component.getRiskScore() <= previousScore);
+            previousScore = component.getRiskScore();
+        }
+    }
+
+    /**
+     * Sorts riskiest first, a stable sort keeps tied components in the order they were offered, the order the heap keeps too.
+     */
+    private List<BomComponent> fullSort(final List<BomComponent> components, final int limit) {
+        final List<BomComponent> sorted = new ArrayList<>(components);
+        sorted.sort(Comparator.comparingLong((final BomComponent component) -> RISK_SCORE.score(component)).reversed());
+        return new ArrayList<>(sorted.subList(0, Math.min(limit, sorted.size())));
+    }
+
+    private List<String> names(final List<? extends BomComponent> components) {
+        return components.stream().map(BomComponent::getComponentName).collect(Collectors.toList());
+    }
+
+}
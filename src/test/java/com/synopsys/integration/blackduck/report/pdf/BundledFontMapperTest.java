@@ -0,0 +1,102 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createComponent;
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createReportData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.fontbox.FontBoxFont;
+import org.apache.pdfbox.pdmodel.font.FontMapping;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.log.LogLevel;
+import com.synopsys.integration.log.PrintStreamIntLogger;
+
+public class BundledFontMapperTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testStandardFontsUseTheBundledFont() throws Exception {
+        final BundledFontMapper fontMapper = new BundledFontMapper();
+        for (final String baseFont : new String[] { "Helvetica", "Helvetica-Bold", "Times-Roman", "Courier" }) {
+            final FontMapping<FontBoxFont> mapping = fontMapper.getFontBoxFont(baseFont, null);
+            assertFalse(baseFont, mapping.isFallback());
+            assertEquals("LiberationSans", mapping.getFont().getName());
+            assertTrue(mapping.getFont().getWidth("A") > 0);
+        }
+        assertNotNull(fontMapper.getTrueTypeFont("Arial", null).getFont());
+        assertNotNull(fontMapper.getCIDFont("MS-Mincho", null, null).getTrueTypeFont());
+    }
+
+    @Test
+    public void testFastStartupDoesNotScanTheSystemFonts() throws Exception {
+        // PDFBox writes the result of its system font scan to a cache file in this directory
+        final File defaultFontCacheDirectory = folder.newFolder();
+        assertEquals(0, writeReportInNewJvm(defaultFontCacheDirectory, false));
+        assertTrue(new File(defaultFontCacheDirectory, ".pdfbox.cache").isFile());
+
+        final File fastFontCacheDirectory = folder.newFolder();
+        assertEquals(0, writeReportInNewJvm(fastFontCacheDirectory, true));
+        assertEquals(0, fastFontCacheDirectory.list().length);
+    }
+
+    private int writeReportInNewJvm(final File fontCacheDirectory, final boolean fastStartup) throws Exception {
+        final ProcessBuilder processBuilder = new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(), "-Dpdfbox.fontcache=" + fontCacheDirectory.getPath(),
+                "-cp", System.getProperty("java.class.path"), ReportInNewJvm.class.getName(), String.valueOf(fastStartup));
+        processBuilder.redirectErrorStream(true);
+        processBuilder.redirectOutput(folder.newFile());
+        final Process process = processBuilder.start();
+        if (!process.waitFor(60, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+        return process.exitValue();
+    }
+
+    public static class ReportInNewJvm {
+        public static void main(final String[] args) throws Exception {
+            if (Boolean.parseBoolean(args[0])) {
+                RiskReportPdfStartup.enableFastStartup();
+            }
+            final BomComponent component = createComponent("component", "1.0", "MIT");
+            component.setPolicyStatus("IN_VIOLATION");
+            new RiskReportPdfWriter(new PrintStreamIntLogger(System.out, LogLevel.WARN)).createPDFReport(NullOutputStream.NULL_OUTPUT_STREAM,
+                    createReportData(Collections.singletonList(component)));
+        }
+    }
+
+}
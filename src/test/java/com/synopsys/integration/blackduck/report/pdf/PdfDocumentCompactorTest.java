@@ -0,0 +1,128 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createComponent;
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createReportData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Test;
+
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.blackduck.report.api.ReportData;
+import com.synopsys.integration.log.LogLevel;
+import com.synopsys.integration.log.PrintStreamIntLogger;
+
+public class PdfDocumentCompactorTest {
+    private static final String IMAGE = "/riskreport/web/images/cross_through_circle.png";
+
+    @Test
+    public void testCompactProfileWritesASmallerFile() throws Exception {
+        final ReportData reportData = createRiskyReportData(500);
+
+        final byte[] defaultReport = writeReport(PdfCompressionProfile.DEFAULT, reportData);
+        final byte[] compactReport = writeReport(PdfCompressionProfile.COMPACT, reportData);
+
+        assertTrue(compactReport.length + " >= " + defaultReport.length, compactReport.length < defaultReport.length);
+        assertEquals(getText(defaultReport), getText(compactReport));
+    }
+
+    @Test
+    public void testIdenticalImagesAreEmbeddedOnce() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            final COSName imageName = COSName.getPDFName("Im1");
+            for (int i = 0; i < 3; i++) {
+                final PDPage page = new PDPage();
+                page.setResources(new PDResources());
+                page.getResources().put(imageName, PdfImageCache.createImage(document, IMAGE));
+                document.addPage(page);
+            }
+            assertNotSame(getImage(document, 0, imageName), getImage(document, 1, imageName));
+
+            new PdfDocumentCompactor(PdfCompressionProfile.COMPACT).compact(document);
+
+            assertSame(getImage(document, 0, imageName), getImage(document, 1, imageName));
+            assertSame(getImage(document, 0, imageName), getImage(document, 2, imageName));
+        }
+    }
+
+    @Test
+    public void testDefaultProfileLeavesTheDocumentAlone() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            final COSName imageName = COSName.getPDFName("Im1");
+            for (int i = 0; i < 2; i++) {
+                final PDPage page = new PDPage();
+                page.setResources(new PDResources());
+                page.getResources().put(imageName, PdfImageCache.createImage(document, IMAGE));
+                document.addPage(page);
+            }
+
+            new PdfDocumentCompactor(PdfCompressionProfile.DEFAULT).compact(document);
+
+            assertNotSame(getImage(document, 0, imageName), getImage(document, 1, imageName));
+        }
+    }
+
+    private Object getImage(final PDDocument document, final int pageIndex, final COSName imageName) throws Exception {
+        return document.getPage(pageIndex).getResources().getXObject(imageName).getCOSObject();
+    }
+
+    private byte[] writeReport(final PdfCompressionProfile compressionProfile, final ReportData reportData) throws Exception {
+        final RiskReportPdfWriter writer = new RiskReportPdfWriter(new PrintStreamIntLogger(System.out, LogLevel.WARN));
+        writer.setCompressionProfile(compressionProfile);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writer.createPDFReport(outputStream, reportData);
+        return outputStream.toByteArray();
+    }
+
+    private String getText(final byte[] report) throws Exception {
+        try (PDDocument document = PDDocument.load(report)) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+
+    private ReportData createRiskyReportData(final int componentCount) {
+        final List<BomComponent> components = new ArrayList<>();
+        for (int i = 0; i < componentCount; i++) {
+            final BomComponent component = createComponent("component " + i, "1." + i, "license " + (i % 7));
+            component.setPolicyStatus(i % 3 == 0 ? "IN_VIOLATION" : "NOT_IN_VIOLATION");
+            component.setSecurityRiskHighCount(i % 5);
+            components.add(component);
+        }
+        return createReportData(components);
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.pdfparser.PDFStreamParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.Test;
+
+public class PdfPageBatchTest {
+
+    @Test
+    public void testRowsAreAppendedAsOneContentStream() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            final PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                // what the manager already drew on the page
+                contentStream.addRect(0, 0, 10, 10);
+                contentStream.fill();
+            }
+
+            final PdfPageBatch pageBatch = new PdfPageBatch(document);
+            pageBatch.switchToPage(page);
+            for (int row = 0; row < 20; row++) {
+                final float y = 700 - (row * 20);
+                pageBatch.fillRectangle(10, y, 500, 18, row % 2 == 0 ? Color.WHITE : Color.LIGHT_GRAY);
+                pageBatch.writeText(30, y, "component " + row, PDType1Font.HELVETICA, 10, Color.BLACK);
+                pageBatch.writeText(210, y, "1." + row, PDType1Font.HELVETICA, 10, Color.BLACK);
+                pageBatch.writeText(434, y, String.valueOf(row), PDType1Font.HELVETICA_BOLD, 10, Color.RED);
+            }
+            pageBatch.flush();
+
+            // the existing content is wrapped in a save and restore of the graphics state, the rows follow in one stream
+            final List<PDStream> contentStreams = getContentStreams(page);
+            assertEquals(3, contentStreams.size());
+            final Map<String, Integer> operatorCounts = countOperators(contentStreams.get(2));
+            assertEquals(Integer.valueOf(1), operatorCounts.get("BT"));
+            assertEquals(Integer.valueOf(1), operatorCounts.get("ET"));
+            assertEquals(Integer.valueOf(60), operatorCounts.get("Tj"));
+            assertEquals(Integer.valueOf(2), operatorCounts.get("Tf"));
+            assertEquals(Integer.valueOf(20), operatorCounts.get("re"));
+            assertEquals(Integer.valueOf(2), operatorCounts.get("f"));
+        }
+    }
+
+    @Test
+    public void testSwitchingPagesWritesThePreviousPage() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            final PDPage firstPage = new PDPage();
+            final PDPage secondPage = new PDPage();
+            document.addPage(firstPage);
+            document.addPage(secondPage);
+
+            final PdfPageBatch pageBatch = new PdfPageBatch(document);
+            pageBatch.switchToPage(firstPage);
+            pageBatch.writeText(30, 700, "first", PDType1Font.HELVETICA, 10, Color.BLACK);
+            pageBatch.switchToPage(firstPage);
+            assertEquals(0, getContentStreams(firstPage).size());
+
+            pageBatch.switchToPage(secondPage);
+            pageBatch.writeText(30, 700, "second", PDType1Font.HELVETICA, 10, Color.BLACK);
+            assertEquals(1, getContentStreams(firstPage).size());
+            assertEquals(0, getContentStreams(secondPage).size());
+
+            pageBatch.flush();
+            pageBatch.flush();
+            assertEquals(1, getContentStreams(firstPage).size());
+            assertEquals(1, getContentStreams(secondPage).size());
+        }
+    }
+
+    @Test
+    public void testLinksToTheSameUrlShareTheirAction() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            final PDPage page = new PDPage();
+            document.addPage(page);
+
+            final PdfPageBatch pageBatch = new PdfPageBatch(document);
+            pageBatch.switchToPage(page);
+            pageBatch.addLink(pageBatch.writeText(30, 700, "first", PDType1Font.HELVETICA, 10, Color.BLACK), "https://localhost/component");
+            pageBatch.addLink(pageBatch.writeText(30, 680, "second", PDType1Font.HELVETICA, 10, Color.BLACK), "https://localhost/component");
+            pageBatch.addLink(pageBatch.writeText(30, 660, "blank", PDType1Font.HELVETICA, 10, Color.BLACK), " ");
+            pageBatch.flush();
+
+            assertEquals(2, page.getAnnotations().size());
+            assertEquals(page.getAnnotations().get(0).getCOSObject().getDictionaryObject("A"), page.getAnnotations().get(1).getCOSObject().getDictionaryObject("A"));
+        }
+    }
+
+    private List<PDStream> getContentStreams(final PDPage page) throws Exception {
+        final List<PDStream> contentStreams = new ArrayList<>();
+        final Iterator<PDStream> streams = page.getContentStreams();
+        while (streams.hasNext()) {
+            contentStreams.add(streams.next());
+        }
+        return contentStreams;
+    }
+
+    private Map<String, Integer> countOperators(final PDStream contentStream) throws Exception {
+        final PDFStreamParser parser = new PDFStreamParser(contentStream.toByteArray());
+        parser.parse();
+        final Map<String, Integer> operatorCounts = new HashMap<>();
+        for (final Object token : parser.getTokens()) {
+            if (token instanceof Operator) {
+                operatorCounts.merge(((Operator) token).getName(), 1, Integer::sum);
+            }
+        }
+        return operatorCounts;
+    }
+
+}
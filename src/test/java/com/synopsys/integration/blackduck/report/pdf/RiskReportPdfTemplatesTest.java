@@ -0,0 +1,104 @@
+/**
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.report.pdf;
+
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createComponent;
+import static com.synopsys.integration.blackduck.report.api.ReportTestFixtures.createReportData;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.junit.Test;
+
+import com.synopsys.integration.blackduck.report.api.BomComponent;
+import com.synopsys.integration.log.LogLevel;
+import com.synopsys.integration.log.PrintStreamIntLogger;
+
+public class RiskReportPdfTemplatesTest {
+
+    @Test
+    public void testFormsAreCreatedOncePerDocument() throws Exception {
+        try (PDDocument firstDocument = new PDDocument(); PDDocument secondDocument = new PDDocument()) {
+            final RiskReportPdfTemplates templates = new RiskReportPdfTemplates(firstDocument);
+            assertSame(templates.getHeaderForm(612), templates.getHeaderForm(612));
+            assertSame(templates.getTableHeaderForm(592), templates.getTableHeaderForm(592));
+            assertNotSame(templates.getTableHeaderForm(592), templates.getTableHeaderForm(400));
+
+            // every document has its own form, drawn with the same operations
+            final PDFormXObject otherTableHeaderForm = new RiskReportPdfTemplates(secondDocument).getTableHeaderForm(592);
+            assertNotSame(templates.getTableHeaderForm(592), otherTableHeaderForm);
+            assertArrayEquals(readContent(templates.getTableHeaderForm(592)), readContent(otherTableHeaderForm));
+        }
+    }
+
+    @Test
+    public void testEveryPageOfTheTableStampsTheSameHeaderForm() throws Exception {
+        final List<BomComponent> components = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            components.add(createComponent("component " + i, "1." + i, null));
+        }
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new RiskReportPdfWriter(new PrintStreamIntLogger(System.out, LogLevel.WARN)).createPDFReport(outputStream, createReportData(components));
+
+        try (PDDocument document = PDDocument.load(outputStream.toByteArray())) {
+            assertTrue(document.getNumberOfPages() > 2);
+            final Map<COSStream, Integer> pagesByForm = new IdentityHashMap<>();
+            for (final PDPage page : document.getPages()) {
+                for (final COSName name : page.getResources().getXObjectNames()) {
+                    final PDXObject xObject = page.getResources().getXObject(name);
+                    if (xObject instanceof PDFormXObject) {
+                        pagesByForm.merge(xObject.getCOSObject(), 1, Integer::sum);
+                    }
+                }
+            }
+            // the page header band on the first page and the table header on every page
+            assertEquals(2, pagesByForm.size());
+            assertTrue(pagesByForm.containsValue(1));
+            assertTrue(pagesByForm.containsValue(document.getNumberOfPages()));
+        }
+    }
+
+    private byte[] readContent(final PDFormXObject form) throws Exception {
+        try (InputStream content = form.getContentStream().createInputStream()) {
+            return IOUtils.toByteArray(content);
+        }
+    }
+
+}